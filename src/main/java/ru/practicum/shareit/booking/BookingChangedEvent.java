@@ -0,0 +1,12 @@
+package ru.practicum.shareit.booking;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import ru.practicum.shareit.booking.dto.BookingDto;
+
+@Data
+@AllArgsConstructor
+public class BookingChangedEvent {
+    private BookingDto booking;
+    private Long ownerId;
+}
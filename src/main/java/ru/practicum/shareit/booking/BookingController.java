@@ -1,21 +1,36 @@
 package ru.practicum.shareit.booking;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPage;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.stream.BookingStatusStream;
+import ru.practicum.shareit.ndjson.NdjsonResponseWriter;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Slf4j
 @RestController
 @RequiredArgsConstructor
 @RequestMapping(path = "/bookings")
 public class BookingController {
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String DEFAULT_LIMIT = "100";
+
     private final BookingService bookingService;
+    private final BookingStatusStream bookingStatusStream;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public BookingDto createBooking(@RequestHeader("X-Sharer-User-Id") Long bookerId,
@@ -34,6 +49,13 @@ public class BookingController {
         return approvedBookingDto;
     }
 
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamBookings(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        SseEmitter emitter = bookingStatusStream.subscribe(userId);
+        log.info("Пользователь с id: {} подписался на изменения бронирований", userId);
+        return emitter;
+    }
+
     @GetMapping("/{bookingId}")
     public BookingDto getBookingById(@RequestHeader("X-Sharer-User-Id") Long userId, @PathVariable Long bookingId) {
         BookingDto bookingDto = bookingService.getBookingById(userId, bookingId);
@@ -42,18 +64,44 @@ public class BookingController {
     }
 
     @GetMapping
-    public List<BookingDto> getAllBookingsByUserId(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                   @RequestParam(defaultValue = "ALL") String state) {
-        List<BookingDto> bookingsDto = bookingService.getAllBookingsByUserId(userId, state);
-        log.info("Найдено {} бронирований пользователя с id: {}", bookingsDto.size(), userId);
-        return bookingsDto;
+    public ResponseEntity<List<BookingDto>> getAllBookingsByUserId(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                                   @RequestParam(defaultValue = "ALL") String state,
+                                                                   @RequestParam(required = false) String cursor,
+                                                                   @RequestParam(defaultValue = DEFAULT_LIMIT) int limit) {
+        BookingPage page = bookingService.getAllBookingsByUserId(userId, state, cursor, limit);
+        log.info("Найдено {} бронирований пользователя с id: {}", page.getBookings().size(), userId);
+        return toResponse(page);
     }
 
     @GetMapping("/owner")
-    public List<BookingDto> getAllBookingsByItemOwnerId(@RequestHeader("X-Sharer-User-Id") Long ownerId,
-                                                        @RequestParam(defaultValue = "ALL") String state) {
-        List<BookingDto> bookingsDto = bookingService.getAllBookingsByItemOwnerId(ownerId, state);
-        log.info("Найдено {} бронирований предметов владельца с id: {}", bookingsDto.size(), ownerId);
-        return bookingsDto;
+    public ResponseEntity<List<BookingDto>> getAllBookingsByItemOwnerId(@RequestHeader("X-Sharer-User-Id") Long ownerId,
+                                                                        @RequestParam(defaultValue = "ALL") String state,
+                                                                        @RequestParam(required = false) String cursor,
+                                                                        @RequestParam(defaultValue = DEFAULT_LIMIT) int limit) {
+        BookingPage page = bookingService.getAllBookingsByItemOwnerId(ownerId, state, cursor, limit);
+        log.info("Найдено {} бронирований предметов владельца с id: {}", page.getBookings().size(), ownerId);
+        return toResponse(page);
+    }
+
+    @GetMapping("/owner/export")
+    public void exportBookingsByItemOwnerId(@RequestHeader("X-Sharer-User-Id") Long ownerId,
+                                            HttpServletResponse response) throws IOException {
+        AtomicLong exported = new AtomicLong();
+        try (NdjsonResponseWriter<BookingDto> writer =
+                     new NdjsonResponseWriter<>(objectMapper, BookingDto.class, response)) {
+            bookingService.exportBookingsByItemOwnerId(ownerId, booking -> {
+                writer.accept(booking);
+                exported.incrementAndGet();
+            });
+        }
+        log.info("Выгружено {} бронирований предметов владельца с id: {}", exported.get(), ownerId);
+    }
+
+    private static ResponseEntity<List<BookingDto>> toResponse(BookingPage page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getBookings());
     }
 }
\ No newline at end of file
@@ -1,63 +1,140 @@
 package ru.practicum.shareit.booking;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
-    List<Booking> findByBookerIdOrderByStartDesc(Long bookerId);
+    @Override
+    @EntityGraph(attributePaths = {"booker", "item", "item.owner"})
+    Optional<Booking> findById(Long id);
 
-    List<Booking> findByBookerIdAndStatusOrderByStartDesc(Long userId, BookingStatus status);
+    @EntityGraph(attributePaths = {"booker", "item"})
+    @Query("SELECT b FROM Booking b " +
+            "WHERE b.booker.id = ?1 AND (b.start < ?2 OR (b.start = ?2 AND b.id < ?3)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findBookerPage(Long bookerId, Instant cursorStart, Long cursorId, Limit limit);
 
-    List<Booking> findByItemOwnerIdOrderByStartDesc(Long ownerId);
+    @EntityGraph(attributePaths = {"booker", "item"})
+    @Query("SELECT b FROM Booking b " +
+            "WHERE b.booker.id = ?1 AND b.status = ?2 AND (b.start < ?3 OR (b.start = ?3 AND b.id < ?4)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findBookerPageByStatus(Long bookerId, BookingStatus status, Instant cursorStart, Long cursorId,
+                                         Limit limit);
 
-    List<Booking> findByItemOwnerIdAndStatusOrderByStartDesc(Long ownerId, BookingStatus status);
+    @EntityGraph(attributePaths = {"booker", "item"})
+    @Query("SELECT b FROM Booking b " +
+            "WHERE b.booker.id = ?1 AND b.start <= ?2 AND b.end > ?2 " +
+            "AND (b.start < ?3 OR (b.start = ?3 AND b.id < ?4)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findBookerCurrentPage(Long bookerId, Instant now, Instant cursorStart, Long cursorId, Limit limit);
 
-    @Query("SELECT b.item.id, MIN(b.start) " +
-            "FROM Booking b " +
-            "WHERE b.item.id IN ?1 AND b.status = ?2 AND b.start > ?3 " +
-            "GROUP BY b.item.id")
-    List<Object[]> findNextBookingsStartDates(List<Long> itemIds, BookingStatus status, Instant now);
+    @EntityGraph(attributePaths = {"booker", "item"})
+    @Query("SELECT b FROM Booking b " +
+            "WHERE b.booker.id = ?1 AND b.end < ?2 " +
+            "AND (b.start < ?3 OR (b.start = ?3 AND b.id < ?4)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findBookerPastPage(Long bookerId, Instant now, Instant cursorStart, Long cursorId, Limit limit);
 
-    @Query("SELECT b.item.id, MAX(b.end) " +
-            "FROM Booking b " +
-            "WHERE b.item.id IN ?1 AND b.status = ?2 AND b.end < ?3 " +
-            "GROUP BY b.item.id")
-    List<Object[]> findLastBookingsEndDates(List<Long> itemIds, BookingStatus status, Instant now);
+    @EntityGraph(attributePaths = {"booker", "item"})
+    @Query("SELECT b FROM Booking b " +
+            "WHERE b.booker.id = ?1 AND b.start > ?2 " +
+            "AND (b.start < ?3 OR (b.start = ?3 AND b.id < ?4)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findBookerFuturePage(Long bookerId, Instant now, Instant cursorStart, Long cursorId, Limit limit);
 
-    default Map<Long, Instant> findNextBookingStarts(List<Long> itemIds, BookingStatus status, Instant now) {
-        return findNextBookingsStartDates(itemIds, status, now).stream()
-                .collect(Collectors.toMap(
-                        row -> (Long) row[0],
-                        row -> (Instant) row[1]
-                ));
-    }
+    @EntityGraph(attributePaths = {"booker", "item"})
+    @Query("SELECT b FROM Booking b " +
+            "WHERE b.item.owner.id = ?1 AND (b.start < ?2 OR (b.start = ?2 AND b.id < ?3)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findItemOwnerPage(Long ownerId, Instant cursorStart, Long cursorId, Limit limit);
 
-    default Map<Long, Instant> findLastBookingEnds(List<Long> itemIds, BookingStatus status, Instant now) {
-        return findLastBookingsEndDates(itemIds, status, now).stream()
-                .collect(Collectors.toMap(
-                        row -> (Long) row[0],
-                        row -> (Instant) row[1]
-                ));
-    }
+    @EntityGraph(attributePaths = {"booker", "item"})
+    @Query("SELECT b FROM Booking b " +
+            "WHERE b.item.owner.id = ?1 AND b.status = ?2 AND (b.start < ?3 OR (b.start = ?3 AND b.id < ?4)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findItemOwnerPageByStatus(Long ownerId, BookingStatus status, Instant cursorStart, Long cursorId,
+                                            Limit limit);
 
-    List<Booking> findByItemIdAndBookerIdAndStatus(Long itemId, Long userId, BookingStatus status);
+    @EntityGraph(attributePaths = {"booker", "item"})
+    @Query("SELECT b FROM Booking b " +
+            "WHERE b.item.owner.id = ?1 AND b.start <= ?2 AND b.end > ?2 " +
+            "AND (b.start < ?3 OR (b.start = ?3 AND b.id < ?4)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findItemOwnerCurrentPage(Long ownerId, Instant now, Instant cursorStart, Long cursorId, Limit limit);
+
+    @EntityGraph(attributePaths = {"booker", "item"})
+    @Query("SELECT b FROM Booking b " +
+            "WHERE b.item.owner.id = ?1 AND b.end < ?2 " +
+            "AND (b.start < ?3 OR (b.start = ?3 AND b.id < ?4)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findItemOwnerPastPage(Long ownerId, Instant now, Instant cursorStart, Long cursorId, Limit limit);
+
+    @EntityGraph(attributePaths = {"booker", "item"})
+    @Query("SELECT b FROM Booking b " +
+            "WHERE b.item.owner.id = ?1 AND b.start > ?2 " +
+            "AND (b.start < ?3 OR (b.start = ?3 AND b.id < ?4)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findItemOwnerFuturePage(Long ownerId, Instant now, Instant cursorStart, Long cursorId, Limit limit);
+
+    @EntityGraph(attributePaths = {"booker", "item"})
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT b FROM Booking b WHERE b.item.owner.id = ?1 ORDER BY b.start DESC, b.id DESC")
+    Stream<Booking> streamByItemOwnerId(Long ownerId);
+
+    /**
+     * Переводит бронирование из WAITING в указанный статус, если оно еще не началось, предмет доступен
+     * и принадлежит ownerId, а бронирующий не является владельцем. Подтверждение, кроме того, не должно
+     * пересекаться с уже подтвержденным бронированием этого предмета. Возвращает число обновленных строк:
+     * 0 означает, что хотя бы одно условие не выполнено, в том числе из-за параллельного подтверждения.
+     */
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = ?3, b.version = b.version + 1 " +
+            "WHERE b.id = ?1 AND b.status = ru.practicum.shareit.booking.BookingStatus.WAITING " +
+            "AND b.start > ?4 AND b.booker.id <> ?2 " +
+            "AND b.item.id IN (SELECT i.id FROM Item i WHERE i.owner.id = ?2 AND i.available = true) " +
+            "AND (?3 <> ru.practicum.shareit.booking.BookingStatus.APPROVED OR NOT EXISTS (" +
+            "SELECT o.id FROM Booking o WHERE o.item.id = b.item.id " +
+            "AND o.status = ru.practicum.shareit.booking.BookingStatus.APPROVED " +
+            "AND o.start < b.end AND o.end > b.start))")
+    int decideWaiting(Long bookingId, Long ownerId, BookingStatus status, Instant now);
 
-    @Query("SELECT b.start, MIN(b.start) " +
-            "FROM Booking b " +
-            "WHERE b.item.id = ?1 AND b.status = ?2 AND b.start > ?3 " +
-            "GROUP BY b.start")
-    Instant findNextBookingStartDate(Long itemId, BookingStatus bookingStatus, Instant now);
+    @Query("SELECT COUNT(b) > 0 FROM Booking b " +
+            "WHERE b.item.id = ?1 AND b.status = ru.practicum.shareit.booking.BookingStatus.APPROVED " +
+            "AND b.start < ?3 AND b.end > ?2")
+    boolean existsApprovedOverlap(Long itemId, Instant start, Instant end);
 
-    @Query("SELECT b.end, MAX(b.end) " +
-            "FROM Booking b " +
-            "WHERE b.item.id = ?1 AND b.status = ?2 AND b.end < ?3 " +
-            "GROUP BY b.end")
-    Instant findLastBookingEndDate(Long itemId, BookingStatus bookingStatus, Instant now);
+    @Query("SELECT b.id, b.start, b.end FROM Booking b WHERE b.item.id = ?1 AND b.status IN ?2 AND b.end > ?3")
+    List<Object[]> findIntervalRowsByItemId(Long itemId, Collection<BookingStatus> statuses, Instant endAfter);
 
-}
\ No newline at end of file
+    @Query("SELECT b.id, b.item.id, b.start FROM Booking b " +
+            "WHERE b.status = ru.practicum.shareit.booking.BookingStatus.WAITING AND b.start < ?1 ORDER BY b.start")
+    List<Object[]> findWaitingIntervalRowsStartingBefore(Instant startBefore, Limit limit);
+
+    @Query("SELECT b.id, b.item.id, b.end FROM Booking b " +
+            "WHERE b.status = ru.practicum.shareit.booking.BookingStatus.APPROVED AND b.end >= ?1 AND b.end < ?2 " +
+            "ORDER BY b.end")
+    List<Object[]> findApprovedIntervalRowsEndingBetween(Instant endFrom, Instant endBefore, Limit limit);
+
+    @EntityGraph(attributePaths = {"booker", "item"})
+    @Query("SELECT b FROM Booking b " +
+            "WHERE b.id IN ?1 AND b.status = ru.practicum.shareit.booking.BookingStatus.WAITING AND b.start <= ?2")
+    List<Booking> findWaitingStartedByIdIn(Collection<Long> ids, Instant now);
+
+    List<Booking> findByItemIdAndBookerIdAndStatus(Long itemId, Long userId, BookingStatus status);
+}
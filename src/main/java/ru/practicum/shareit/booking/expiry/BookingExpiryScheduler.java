@@ -0,0 +1,225 @@
+package ru.practicum.shareit.booking.expiry;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingChangedEvent;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemChangedEvent;
+import ru.practicum.shareit.item.ItemRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Фоновое обслуживание сроков бронирований на {@link HashedTimeWheel}:
+ * <ul>
+ *     <li>бронирование, которое так и не подтвердили до начала, отклоняется;</li>
+ *     <li>после окончания последнего подтвержденного бронирования предмет снова становится доступным.</li>
+ * </ul>
+ * В колесе лежат только сроки ближайшего горизонта: они подгружаются из базы по расписанию и добавляются
+ * по {@link BookingChangedEvent}. Сработавшие задачи обрабатываются пачками, каждая в своей транзакции;
+ * условие задачи перепроверяется в базе, поэтому устаревшие задачи и повторные срабатывания безвредны.
+ */
+@Slf4j
+@Component
+public class BookingExpiryScheduler {
+    private static final int WHEEL_SIZE = 512;
+    private static final int BATCH_SIZE = 100;
+    private static final int REFILL_LIMIT = 10_000;
+
+    private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration horizon;
+    private final HashedTimeWheel<ExpiryTask> wheel;
+    private final Timer lag;
+    private final DistributionSummary rejectedBatches;
+    private final DistributionSummary releasedBatches;
+
+    public BookingExpiryScheduler(BookingRepository bookingRepository,
+                                  ItemRepository itemRepository,
+                                  TransactionTemplate transactionTemplate,
+                                  ApplicationEventPublisher eventPublisher,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${shareit.booking-expiry.tick}") Duration tick,
+                                  @Value("${shareit.booking-expiry.horizon}") Duration horizon) {
+        this.bookingRepository = bookingRepository;
+        this.itemRepository = itemRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.horizon = horizon;
+        this.wheel = new HashedTimeWheel<>(tick, WHEEL_SIZE, Instant.now());
+        this.lag = Timer.builder("shareit.booking.expiry.lag")
+                .description("Задержка обработки срока бронирования относительно самого срока")
+                .register(meterRegistry);
+        this.rejectedBatches = batchSummary(meterRegistry, "reject");
+        this.releasedBatches = batchSummary(meterRegistry, "release");
+        Gauge.builder("shareit.booking.expiry.pending", wheel, HashedTimeWheel::size)
+                .description("Сроки, ожидающие срабатывания")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking-expiry.tick}")
+    public void tick() {
+        Instant now = Instant.now();
+        List<HashedTimeWheel.Timeout<ExpiryTask>> expired = wheel.advance(now);
+        if (expired.isEmpty()) {
+            return;
+        }
+        List<Long> bookingIds = new ArrayList<>();
+        Set<Long> itemIds = new LinkedHashSet<>();
+        for (HashedTimeWheel.Timeout<ExpiryTask> timeout : expired) {
+            lag.record(Duration.between(timeout.getDeadline(), now));
+            ExpiryTask task = timeout.getTask();
+            if (task.getAction() == Action.REJECT_WAITING) {
+                bookingIds.add(task.getBookingId());
+            } else {
+                itemIds.add(task.getItemId());
+            }
+        }
+        int rejected = inBatches(bookingIds, batch -> rejectStarted(batch, now), rejectedBatches);
+        int released = inBatches(new ArrayList<>(itemIds), batch -> releaseItems(batch, now), releasedBatches);
+        if (rejected > 0 || released > 0) {
+            log.info("Отклонено неподтвержденных бронирований: {}, снова доступно предметов: {}", rejected, released);
+        }
+    }
+
+    /**
+     * Подгружает сроки ближайшего горизонта. Уже наступившие сроки тоже попадают в колесо и срабатывают
+     * на следующем тике: так обрабатывается то, что накопилось, пока приложение не работало.
+     */
+    @Scheduled(fixedDelayString = "${shareit.booking-expiry.refill-interval}")
+    public void refill() {
+        Instant now = Instant.now();
+        Instant until = now.plus(horizon);
+        for (Object[] row : bookingRepository.findWaitingIntervalRowsStartingBefore(until, Limit.of(REFILL_LIMIT))) {
+            wheel.schedule(new ExpiryTask(Action.REJECT_WAITING, (Long) row[0], (Long) row[1]), (Instant) row[2]);
+        }
+        for (Object[] row : bookingRepository.findApprovedIntervalRowsEndingBetween(now.minus(horizon), until,
+                Limit.of(REFILL_LIMIT))) {
+            wheel.schedule(new ExpiryTask(Action.RELEASE_ITEM, (Long) row[0], (Long) row[1]), (Instant) row[2]);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        BookingDto booking = event.getBooking();
+        Instant until = Instant.now().plus(horizon);
+        Long itemId = booking.getItem().getId();
+        if (booking.getStatus() == BookingStatus.WAITING) {
+            Instant start = booking.getStart().atZone(ZoneId.systemDefault()).toInstant();
+            if (start.isBefore(until)) {
+                wheel.schedule(new ExpiryTask(Action.REJECT_WAITING, booking.getId(), itemId), start);
+            }
+        } else if (booking.getStatus() == BookingStatus.APPROVED) {
+            Instant end = booking.getEnd().atZone(ZoneId.systemDefault()).toInstant();
+            if (end.isBefore(until)) {
+                wheel.schedule(new ExpiryTask(Action.RELEASE_ITEM, booking.getId(), itemId), end);
+            }
+        }
+    }
+
+    boolean isRejectionPending(Long bookingId, Long itemId) {
+        return wheel.contains(new ExpiryTask(Action.REJECT_WAITING, bookingId, itemId));
+    }
+
+    boolean isReleasePending(Long bookingId, Long itemId) {
+        return wheel.contains(new ExpiryTask(Action.RELEASE_ITEM, bookingId, itemId));
+    }
+
+    /**
+     * Отклоняет те бронирования из списка, которые все еще ждут подтверждения и уже начались.
+     */
+    int rejectStarted(List<Long> bookingIds, Instant now) {
+        return transactionTemplate.execute(status -> {
+            List<Booking> bookings = bookingRepository.findWaitingStartedByIdIn(bookingIds, now);
+            for (Booking booking : bookings) {
+                booking.setStatus(BookingStatus.REJECTED);
+                eventPublisher.publishEvent(new BookingChangedEvent(BookingMapper.toBookingDto(booking),
+                        booking.getItem().getOwner().getId()));
+            }
+            return bookings.size();
+        });
+    }
+
+    /**
+     * Делает доступными те предметы из списка, которые отключило подтверждение бронирования и у которых
+     * не осталось текущих и будущих подтвержденных бронирований. Снятый флаг не дает повторной подгрузке
+     * уже прошедшего бронирования снова включить предмет, если владелец тем временем его отключил.
+     */
+    int releaseItems(List<Long> itemIds, Instant now) {
+        return transactionTemplate.execute(status -> {
+            List<Item> items = itemRepository.findReleasableByIdIn(itemIds, BookingStatus.APPROVED, now);
+            for (Item item : items) {
+                item.setAvailable(true);
+                item.setDisabledByBooking(false);
+                eventPublisher.publishEvent(ItemChangedEvent.of(item));
+            }
+            return items.size();
+        });
+    }
+
+    /**
+     * Пачка, проигравшая параллельному изменению, пропускается: если ее условие еще выполняется,
+     * задача вернется в колесо при следующей подгрузке.
+     */
+    private static int inBatches(List<Long> ids, Function<List<Long>, Integer> action, DistributionSummary sizes) {
+        int processed = 0;
+        for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + BATCH_SIZE, ids.size()));
+            try {
+                int count = action.apply(batch);
+                sizes.record(count);
+                processed += count;
+            } catch (OptimisticLockingFailureException e) {
+                log.warn("Пачка из {} сроков бронирований изменена параллельно и будет обработана позже", batch.size());
+            }
+        }
+        return processed;
+    }
+
+    private static DistributionSummary batchSummary(MeterRegistry meterRegistry, String action) {
+        return DistributionSummary.builder("shareit.booking.expiry.batch")
+                .description("Число бронирований или предметов, измененных одной пачкой")
+                .tag("action", action)
+                .register(meterRegistry);
+    }
+
+    private enum Action {
+        REJECT_WAITING,
+        RELEASE_ITEM
+    }
+
+    @Data
+    @AllArgsConstructor
+    private static class ExpiryTask {
+        private Action action;
+        private Long bookingId;
+        private Long itemId;
+    }
+}
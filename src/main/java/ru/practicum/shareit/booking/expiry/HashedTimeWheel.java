@@ -0,0 +1,92 @@
+package ru.practicum.shareit.booking.expiry;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Хешированное колесо таймеров: задача попадает в ячейку номер тика ее срока по модулю числа ячеек,
+ * поэтому постановка стоит O(1), а каждый тик просматривает одну ячейку. Задачи со сроком дальше
+ * одного оборота лежат в той же ячейке и пропускаются, пока их тик не наступит. Срок округляется до тика
+ * вверх, так что задача никогда не срабатывает раньше своего срока. Одна и та же задача дважды не ставится.
+ */
+class HashedTimeWheel<T> {
+    private final long tickMillis;
+    private final List<List<Timeout<T>>> buckets;
+    private final Set<T> scheduled = new HashSet<>();
+    private long currentTick;
+
+    HashedTimeWheel(Duration tick, int size, Instant start) {
+        this.tickMillis = tick.toMillis();
+        this.buckets = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        this.currentTick = tickOf(start);
+    }
+
+    /**
+     * Просроченная задача ставится на ближайший тик. Возвращает false, если задача уже стоит в колесе.
+     */
+    synchronized boolean schedule(T task, Instant deadline) {
+        if (!scheduled.add(task)) {
+            return false;
+        }
+        long tick = Math.max(Math.floorDiv(deadline.toEpochMilli() + tickMillis - 1, tickMillis), currentTick + 1);
+        buckets.get(bucketOf(tick)).add(new Timeout<>(task, deadline, tick));
+        return true;
+    }
+
+    /**
+     * Продвигает колесо до момента now и возвращает все задачи, срок которых наступил.
+     */
+    synchronized List<Timeout<T>> advance(Instant now) {
+        long nowTick = tickOf(now);
+        List<Timeout<T>> expired = new ArrayList<>();
+        long ticks = Math.min(nowTick - currentTick, buckets.size());
+        for (long i = 1; i <= ticks; i++) {
+            Iterator<Timeout<T>> bucket = buckets.get(bucketOf(currentTick + i)).iterator();
+            while (bucket.hasNext()) {
+                Timeout<T> timeout = bucket.next();
+                if (timeout.getTick() <= nowTick) {
+                    bucket.remove();
+                    scheduled.remove(timeout.getTask());
+                    expired.add(timeout);
+                }
+            }
+        }
+        currentTick = Math.max(currentTick, nowTick);
+        return expired;
+    }
+
+    synchronized boolean contains(T task) {
+        return scheduled.contains(task);
+    }
+
+    synchronized int size() {
+        return scheduled.size();
+    }
+
+    private long tickOf(Instant instant) {
+        return Math.floorDiv(instant.toEpochMilli(), tickMillis);
+    }
+
+    private int bucketOf(long tick) {
+        return (int) Math.floorMod(tick, (long) buckets.size());
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class Timeout<T> {
+        private T task;
+        private Instant deadline;
+        private long tick;
+    }
+}
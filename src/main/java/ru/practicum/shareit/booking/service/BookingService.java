@@ -1,9 +1,10 @@
 package ru.practicum.shareit.booking.service;
 
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPage;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 
-import java.util.List;
+import java.util.function.Consumer;
 
 public interface BookingService {
 
@@ -13,7 +14,9 @@ public interface BookingService {
 
     BookingDto getBookingById(Long userId, Long bookingId);
 
-    List<BookingDto> getAllBookingsByUserId(Long userId, String state);
+    BookingPage getAllBookingsByUserId(Long userId, String state, String cursor, int limit);
 
-    List<BookingDto> getAllBookingsByItemOwnerId(Long ownerId, String state);
+    BookingPage getAllBookingsByItemOwnerId(Long ownerId, String state, String cursor, int limit);
+
+    void exportBookingsByItemOwnerId(Long ownerId, Consumer<BookingDto> sink);
 }
\ No newline at end of file
@@ -1,20 +1,34 @@
 package ru.practicum.shareit.booking.service;
 
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingChangedEvent;
+import ru.practicum.shareit.booking.BookingCursor;
 import ru.practicum.shareit.booking.BookingStatus;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPage;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.BookingRepository;
 import ru.practicum.shareit.booking.dto.BookingMapper;
 import ru.practicum.shareit.booking.BookingState;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.CustomValidationException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemChangedEvent;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.summary.ItemBookingSummaryUpdater;
 
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.service.UserService;
@@ -22,61 +36,115 @@ import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.item.ItemRepository;
 
 import java.time.Instant;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class BookingServiceImpl implements BookingService {
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int EXPORT_CLEAR_INTERVAL = 500;
+
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
     private final UserService userService;
     private final ItemService itemService;
+    private final ItemBookingSummaryUpdater itemBookingSummaryUpdater;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
 
     @Override
     @Transactional
     public BookingDto createBooking(Long bookerId, BookingRequestDto bookingRequestDto) {
-        getUserOrThrow(bookerId);
+        User booker = getUserOrThrow(bookerId);
         Item item = getItemOrThrow(bookingRequestDto.getItemId());
         if (!item.getAvailable()) {
             throw new CustomValidationException("Предмет недоступен для бронирования");
         }
         Booking booking = BookingMapper.toBooking(bookingRequestDto);
-        booking.setBooker(getUserOrThrow(bookerId));
+        if (bookingRepository.existsApprovedOverlap(item.getId(), booking.getStart(), booking.getEnd())) {
+            throw bookedPeriodConflict();
+        }
+        booking.setBooker(booker);
         booking.setItem(item);
         booking.setStatus(BookingStatus.WAITING);
-        return BookingMapper.toBookingDto(bookingRepository.save(booking));
+        BookingDto bookingDto = BookingMapper.toBookingDto(bookingRepository.save(booking));
+        eventPublisher.publishEvent(new BookingChangedEvent(bookingDto, item.getOwner().getId()));
+        return bookingDto;
     }
 
+    /**
+     * Переход статуса выполняется одним условным UPDATE, поэтому из двух параллельных решений по одному
+     * бронированию проходит только одно. Причину отказа выясняет {@link #rejectDecision} уже после неудачи.
+     * Подтверждения разных бронирований одного предмета сталкиваются на версии предмета; проигравшая
+     * транзакция повторяется и получает обычный отказ.
+     */
     @Override
     @Transactional
+    @Retryable(retryFor = OptimisticLockingFailureException.class, maxAttempts = 3,
+            backoff = @Backoff(delay = 20, multiplier = 2, random = true))
     public BookingDto approveBooking(Long userId, Long bookingId, boolean approved) {
-        userRepository.findById(userId)
-                .orElseThrow(() -> new CustomValidationException("Пользователь не найден"));
+        BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        int updated;
+        try {
+            updated = bookingRepository.decideWaiting(bookingId, userId, status, Instant.now());
+        } catch (DataIntegrityViolationException e) {
+            // ограничение ex_bookings_item_approved_period: параллельно подтверждено пересекающееся бронирование
+            throw bookedPeriodConflict();
+        }
+        if (updated == 0) {
+            throw rejectDecision(userId, bookingId);
+        }
+
         Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new NotFoundException("Бронирование не найдено"));
-        if (booking.getStatus() != BookingStatus.WAITING) {
-            throw new IllegalStateException("Бронирование уже обработано");
-        } else if (booking.getStart().isBefore(Instant.now())) {
-            throw new CustomValidationException("Нельзя подтвердить бронирование, которое уже началось");
+        if (approved) {
+            Item item = booking.getItem();
+            if (!item.getAvailable()) {
+                // другое бронирование подтверждено и зафиксировано уже после нашего UPDATE
+                throw new ObjectOptimisticLockingFailureException(Item.class, item.getId());
+            }
+            item.setAvailable(false);
+            item.setDisabledByBooking(true);
+            eventPublisher.publishEvent(ItemChangedEvent.of(item));
+            // конфликт версий предмета должен проявиться раньше, чем вставка его сводки
+            itemRepository.flush();
+            itemBookingSummaryUpdater.refresh(item.getId());
         }
+        BookingDto bookingDto = BookingMapper.toBookingDto(booking);
+        eventPublisher.publishEvent(new BookingChangedEvent(bookingDto, userId));
+        return bookingDto;
+    }
 
+    private RuntimeException rejectDecision(Long userId, Long bookingId) {
+        if (!userRepository.existsById(userId)) {
+            return new CustomValidationException("Пользователь не найден");
+        }
+        Booking booking = bookingRepository.findById(bookingId)
+                .orElseThrow(() -> new NotFoundException("Бронирование не найдено"));
         Item item = booking.getItem();
-        if (!item.getOwner().getId().equals(userId)) {
-            throw new CustomValidationException("Пользователь не является владельцем предмета");
+        if (booking.getStatus() != BookingStatus.WAITING) {
+            return new IllegalStateException("Бронирование уже обработано");
+        } else if (booking.getStart().isBefore(Instant.now())) {
+            return new CustomValidationException("Нельзя подтвердить бронирование, которое уже началось");
+        } else if (!item.getOwner().getId().equals(userId)) {
+            return new CustomValidationException("Пользователь не является владельцем предмета");
         } else if (!item.getAvailable()) {
-            throw new CustomValidationException("Предмет недоступен для бронирования");
+            return new CustomValidationException("Предмет недоступен для бронирования");
         } else if (item.getOwner().getId().equals(booking.getBooker().getId())) {
-            throw new CustomValidationException("Нельзя подтвердить бронирование для самого себя");
-        } else if (!approved) {
-            booking.setStatus(BookingStatus.REJECTED);
-        } else {
-            booking.setStatus(BookingStatus.APPROVED);
-            item.setAvailable(false);
+            return new CustomValidationException("Нельзя подтвердить бронирование для самого себя");
+        } else if (bookingRepository.existsApprovedOverlap(item.getId(), booking.getStart(), booking.getEnd())) {
+            return bookedPeriodConflict();
         }
+        return new IllegalStateException("Бронирование уже обработано");
+    }
 
-        return BookingMapper.toBookingDto(bookingRepository.save(booking));
+    private static ConflictException bookedPeriodConflict() {
+        return new ConflictException("Предмет уже забронирован на эти даты");
     }
 
     @Override
@@ -92,28 +160,61 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    public List<BookingDto> getAllBookingsByUserId(Long userId, String state) {
+    public BookingPage getAllBookingsByUserId(Long userId, String state, String cursor, int limit) {
         userService.getUser(userId);
-        if ("ALL".equals(state)) {
-            return bookingRepository.findByBookerIdOrderByStartDesc(userId).stream()
-                    .map(BookingMapper::toBookingDto)
-                    .toList();
-        } else {
-            BookingStatus status = getBookingStatusFromBookingState(state);
-            return bookingRepository.findByBookerIdAndStatusOrderByStartDesc(userId, status).stream()
-                    .map(BookingMapper::toBookingDto)
-                    .toList();
-        }
+        BookingState bookingState = BookingState.from(state);
+        BookingCursor after = BookingCursor.decode(cursor);
+        Limit pageLimit = getPageLimit(limit);
+        Instant now = Instant.now();
+        List<Booking> bookings = switch (bookingState) {
+            case ALL -> bookingRepository.findBookerPage(userId, after.getStart(), after.getId(), pageLimit);
+            case CURRENT -> bookingRepository.findBookerCurrentPage(
+                    userId, now, after.getStart(), after.getId(), pageLimit);
+            case PAST -> bookingRepository.findBookerPastPage(userId, now, after.getStart(), after.getId(), pageLimit);
+            case FUTURE -> bookingRepository.findBookerFuturePage(
+                    userId, now, after.getStart(), after.getId(), pageLimit);
+            case WAITING -> bookingRepository.findBookerPageByStatus(
+                    userId, BookingStatus.WAITING, after.getStart(), after.getId(), pageLimit);
+            case REJECTED -> bookingRepository.findBookerPageByStatus(
+                    userId, BookingStatus.REJECTED, after.getStart(), after.getId(), pageLimit);
+        };
+        return toPage(bookings, limit);
     }
 
     @Override
-    public List<BookingDto> getAllBookingsByItemOwnerId(Long ownerId, String state) {
+    public BookingPage getAllBookingsByItemOwnerId(Long ownerId, String state, String cursor, int limit) {
         userService.getUser(ownerId);
-        if ("ALL".equals(state)) {
-            return mapBookingsToDto(bookingRepository.findByItemOwnerIdOrderByStartDesc(ownerId));
-        } else {
-            BookingStatus status = getBookingStatusFromBookingState(state);
-            return mapBookingsToDto(bookingRepository.findByItemOwnerIdAndStatusOrderByStartDesc(ownerId, status));
+        BookingState bookingState = BookingState.from(state);
+        BookingCursor after = BookingCursor.decode(cursor);
+        Limit pageLimit = getPageLimit(limit);
+        Instant now = Instant.now();
+        List<Booking> bookings = switch (bookingState) {
+            case ALL -> bookingRepository.findItemOwnerPage(ownerId, after.getStart(), after.getId(), pageLimit);
+            case CURRENT -> bookingRepository.findItemOwnerCurrentPage(
+                    ownerId, now, after.getStart(), after.getId(), pageLimit);
+            case PAST -> bookingRepository.findItemOwnerPastPage(
+                    ownerId, now, after.getStart(), after.getId(), pageLimit);
+            case FUTURE -> bookingRepository.findItemOwnerFuturePage(
+                    ownerId, now, after.getStart(), after.getId(), pageLimit);
+            case WAITING -> bookingRepository.findItemOwnerPageByStatus(
+                    ownerId, BookingStatus.WAITING, after.getStart(), after.getId(), pageLimit);
+            case REJECTED -> bookingRepository.findItemOwnerPageByStatus(
+                    ownerId, BookingStatus.REJECTED, after.getStart(), after.getId(), pageLimit);
+        };
+        return toPage(bookings, limit);
+    }
+
+    @Override
+    public void exportBookingsByItemOwnerId(Long ownerId, Consumer<BookingDto> sink) {
+        userService.getUser(ownerId);
+        try (Stream<Booking> bookings = bookingRepository.streamByItemOwnerId(ownerId)) {
+            long exported = 0;
+            for (Iterator<Booking> iterator = bookings.iterator(); iterator.hasNext(); ) {
+                sink.accept(BookingMapper.toBookingDto(iterator.next()));
+                if (++exported % EXPORT_CLEAR_INTERVAL == 0) {
+                    entityManager.clear();
+                }
+            }
         }
     }
 
@@ -127,20 +228,25 @@ public class BookingServiceImpl implements BookingService {
                 .orElseThrow(() -> new NotFoundException("Предмет не найден"));
     }
 
-    private List<BookingDto> mapBookingsToDto(List<Booking> bookings) {
+    private static Limit getPageLimit(int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new CustomValidationException(
+                    String.format("Параметр limit должен быть в диапазоне от 1 до %d", MAX_PAGE_SIZE));
+        }
+        return Limit.of(limit + 1);
+    }
+
+    private static BookingPage toPage(List<Booking> bookings, int limit) {
+        if (bookings.size() <= limit) {
+            return new BookingPage(mapBookingsToDto(bookings), null);
+        }
+        List<Booking> page = bookings.subList(0, limit);
+        return new BookingPage(mapBookingsToDto(page), BookingCursor.of(page.get(limit - 1)).encode());
+    }
+
+    private static List<BookingDto> mapBookingsToDto(List<Booking> bookings) {
         return bookings.stream()
                 .map(BookingMapper::toBookingDto)
                 .toList();
     }
-
-    private static BookingStatus getBookingStatusFromBookingState(String state) {
-        BookingState bookingState = BookingState.from(state);
-        return switch (bookingState) {
-            case ALL -> null;
-            case CURRENT, FUTURE -> BookingStatus.APPROVED;
-            case PAST -> BookingStatus.CANCELED;
-            case WAITING -> BookingStatus.WAITING;
-            case REJECTED -> BookingStatus.REJECTED;
-        };
-    }
 }
\ No newline at end of file
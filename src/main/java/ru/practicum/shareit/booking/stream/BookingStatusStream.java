@@ -0,0 +1,260 @@
+package ru.practicum.shareit.booking.stream;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.BookingChangedEvent;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Подписки пользователей на изменения их бронирований (Server-Sent Events). После коммита изменения
+ * бронирование отправляется всем подключениям арендатора и владельца предмета; изменения, сделанные
+ * на других экземплярах, приходят сюда же через {@link ru.practicum.shareit.invalidation.InvalidationBus}.
+ * <p>
+ * Простаивающее подключение - это асинхронный запрос без потока, так что их число ограничено только
+ * лимитом соединений контейнера. У каждого подключения ограниченный буфер, который разбирает небольшой пул
+ * платформенных потоков: {@link SseEmitter#send} синхронизирован, и виртуальный поток, застрявший в нем
+ * на медленном клиенте, занимал бы поток-носитель. Подключение закрывается, если не успевает разбирать
+ * буфер или одна отправка длится дольше shareit.booking-stream.send-timeout, - клиент переподключится
+ * и перечитает бронирования. Закрытие не ждет монитора emitter: его завершает поток-отправитель, а поток,
+ * застрявший в записи, освобождает тайм-аут записи контейнера (server.tomcat.connection-timeout).
+ * Если событий нет, по подключению периодически уходит комментарий, чтобы прокси не закрыли его по простою,
+ * а оборванные соединения обнаруживались.
+ */
+@Slf4j
+@Component
+public class BookingStatusStream {
+    private static final int BUFFER_SIZE = 32;
+    private static final int MAX_CONNECTIONS_PER_USER = 8;
+    private static final int SENDER_THREADS = 4;
+
+    private final UserService userService;
+    private final Duration timeout;
+    private final Duration sendTimeout;
+    private final Map<Long, List<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final ExecutorService senders;
+    private final Counter overflows;
+    private final Counter stalls;
+
+    @Autowired
+    public BookingStatusStream(UserService userService, MeterRegistry meterRegistry,
+                               @Value("${shareit.booking-stream.timeout}") Duration timeout,
+                               @Value("${shareit.booking-stream.send-timeout}") Duration sendTimeout) {
+        this(userService, meterRegistry, timeout, sendTimeout, Executors.newFixedThreadPool(SENDER_THREADS,
+                Thread.ofPlatform().name("booking-stream-sender-", 0).daemon().factory()));
+    }
+
+    BookingStatusStream(UserService userService, MeterRegistry meterRegistry, Duration timeout,
+                        Duration sendTimeout, ExecutorService senders) {
+        this.userService = userService;
+        this.timeout = timeout;
+        this.sendTimeout = sendTimeout;
+        this.senders = senders;
+        this.overflows = Counter.builder("shareit.booking.stream.overflows")
+                .description("Подключения, закрытые из-за переполнения буфера")
+                .register(meterRegistry);
+        this.stalls = Counter.builder("shareit.booking.stream.stalls")
+                .description("Подключения, закрытые из-за слишком долгой отправки")
+                .register(meterRegistry);
+        Gauge.builder("shareit.booking.stream.connections", subscribers,
+                        map -> map.values().stream().mapToInt(List::size).sum())
+                .description("Открытые подписки на изменения бронирований")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Открывает подписку пользователя. Сверх {@value #MAX_CONNECTIONS_PER_USER} подключений на пользователя
+     * закрываются самые старые.
+     */
+    public SseEmitter subscribe(Long userId) {
+        userService.getUser(userId);
+        Subscriber subscriber = new Subscriber(userId, new SseEmitter(timeout.toMillis()));
+        subscriber.emitter.onCompletion(subscriber::detach);
+        subscriber.emitter.onTimeout(subscriber::detach);
+        subscriber.emitter.onError(e -> subscriber.detach());
+        List<Subscriber> evicted = new ArrayList<>();
+        subscribers.compute(userId, (id, current) -> {
+            List<Subscriber> updated = current == null ? new ArrayList<>() : new ArrayList<>(current);
+            updated.add(subscriber);
+            while (updated.size() > MAX_CONNECTIONS_PER_USER) {
+                evicted.add(updated.remove(0));
+            }
+            return List.copyOf(updated);
+        });
+        evicted.forEach(Subscriber::close);
+        subscriber.offer(SseEmitter.event().comment("connected"));
+        return subscriber.emitter;
+    }
+
+    /**
+     * Вызывается и шиной инвалидации для изменений, зафиксированных другими экземплярами.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        BookingDto booking = event.getBooking();
+        Long bookerId = booking.getBooker().getId();
+        publish(bookerId, booking);
+        if (!Objects.equals(bookerId, event.getOwnerId())) {
+            publish(event.getOwnerId(), booking);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking-stream.heartbeat}")
+    public void heartbeat() {
+        subscribers.values().forEach(userSubscribers -> userSubscribers.forEach(Subscriber::heartbeat));
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking-stream.send-timeout}")
+    public void closeStalled() {
+        long now = System.nanoTime();
+        subscribers.values().forEach(userSubscribers -> userSubscribers.stream()
+                .filter(subscriber -> subscriber.isStalled(now))
+                .forEach(subscriber -> {
+                    stalls.increment();
+                    log.warn("Отправка подписчику с id: {} длится дольше {}, подключение закрыто",
+                            subscriber.userId, sendTimeout);
+                    subscriber.close();
+                }));
+    }
+
+    @PreDestroy
+    public void close() {
+        subscribers.values().forEach(userSubscribers -> userSubscribers.forEach(Subscriber::close));
+        senders.shutdown();
+    }
+
+    int connections(Long userId) {
+        return subscribers.getOrDefault(userId, List.of()).size();
+    }
+
+    private void publish(Long userId, BookingDto booking) {
+        for (Subscriber subscriber : subscribers.getOrDefault(userId, List.of())) {
+            subscriber.offer(SseEmitter.event()
+                    .name("booking")
+                    .id(String.valueOf(booking.getId()))
+                    .data(booking, MediaType.APPLICATION_JSON));
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.userId, (id, current) -> {
+            List<Subscriber> updated = new ArrayList<>(current);
+            updated.remove(subscriber);
+            return updated.isEmpty() ? null : List.copyOf(updated);
+        });
+    }
+
+    /**
+     * Одно подключение. Отправляет не больше одного потока за раз: флаг draining захватывает тот,
+     * кто запускает отправку, и снимает поток-отправитель, перепроверив буфер и флаг closed.
+     * Закрытое подключение завершает поток-отправитель, так что закрывающий не ждет монитора emitter.
+     */
+    private final class Subscriber {
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> buffer = new ArrayBlockingQueue<>(BUFFER_SIZE);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+        private volatile long sendStartedAt;
+
+        private Subscriber(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        void offer(SseEmitter.SseEventBuilder event) {
+            if (closed) {
+                return;
+            }
+            if (!buffer.offer(event)) {
+                overflows.increment();
+                log.warn("Подписчик с id: {} не успевает получать изменения бронирований, подключение закрыто",
+                        userId);
+                close();
+                return;
+            }
+            drain();
+        }
+
+        void heartbeat() {
+            if (buffer.isEmpty()) {
+                offer(SseEmitter.event().comment("heartbeat"));
+            }
+        }
+
+        boolean isStalled(long now) {
+            long startedAt = sendStartedAt;
+            return startedAt != 0 && now - startedAt > sendTimeout.toNanos();
+        }
+
+        void close() {
+            detach();
+            drain();
+        }
+
+        void detach() {
+            closed = true;
+            remove(this);
+            buffer.clear();
+        }
+
+        private void drain() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this::send);
+                } catch (RejectedExecutionException e) {
+                    detach();
+                }
+            }
+        }
+
+        private void send() {
+            try {
+                for (SseEmitter.SseEventBuilder event = buffer.poll(); event != null && !closed;
+                     event = buffer.poll()) {
+                    sendStartedAt = System.nanoTime();
+                    emitter.send(event);
+                    sendStartedAt = 0;
+                }
+                if (closed) {
+                    emitter.complete();
+                    return;
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Подключение подписчика с id: {} закрыто: {}", userId, e.getMessage());
+                detach();
+                return;
+            } finally {
+                sendStartedAt = 0;
+            }
+            draining.set(false);
+            if (closed || !buffer.isEmpty()) {
+                drain();
+            }
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.exception;
+
+public class ForbiddenException extends RuntimeException {
+    public ForbiddenException(String message) {
+        super(message);
+    }
+}
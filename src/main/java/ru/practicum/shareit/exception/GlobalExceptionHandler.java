@@ -1,6 +1,7 @@
 package ru.practicum.shareit.exception;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -59,4 +60,18 @@ public class GlobalExceptionHandler {
         ErrorResponse response = new ErrorResponse("Ошибка", ex.getMessage());
         return new ResponseEntity<>(response, HttpStatus.CONFLICT);
     }
+
+    @ExceptionHandler(ForbiddenException.class)
+    public ResponseEntity<ErrorResponse> handleForbiddenException(ForbiddenException ex) {
+        log.error(ex.getMessage());
+        ErrorResponse response = new ErrorResponse("Доступ запрещен", ex.getMessage());
+        return new ResponseEntity<>(response, HttpStatus.FORBIDDEN);
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailure(OptimisticLockingFailureException ex) {
+        log.error(ex.getMessage());
+        ErrorResponse response = new ErrorResponse("Ошибка", "Данные изменены параллельным запросом, повторите попытку");
+        return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+    }
 }
\ No newline at end of file
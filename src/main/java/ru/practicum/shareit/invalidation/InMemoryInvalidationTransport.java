@@ -0,0 +1,45 @@
+package ru.practicum.shareit.invalidation;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Транспорт в пределах одной JVM: экземпляры приложения, поднятые в одном процессе (например, в тестах),
+ * получают сообщения друг друга по общему имени канала. Доставка синхронная, в потоке отправителя.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.invalidation.transport", havingValue = "in-memory")
+public class InMemoryInvalidationTransport implements InvalidationTransport {
+    private static final Map<String, List<Consumer<InvalidationMessage>>> CHANNELS = new ConcurrentHashMap<>();
+
+    private final List<Consumer<InvalidationMessage>> subscribers;
+    private final List<Consumer<InvalidationMessage>> ownSubscribers = new CopyOnWriteArrayList<>();
+
+    public InMemoryInvalidationTransport(@Value("${shareit.invalidation.channel}") String channel) {
+        this.subscribers = CHANNELS.computeIfAbsent(channel, name -> new CopyOnWriteArrayList<>());
+    }
+
+    @Override
+    public void publish(InvalidationMessage message) {
+        subscribers.forEach(subscriber -> subscriber.accept(message));
+    }
+
+    @Override
+    public void subscribe(Consumer<InvalidationMessage> subscriber) {
+        ownSubscribers.add(subscriber);
+        subscribers.add(subscriber);
+    }
+
+    @PreDestroy
+    public void close() {
+        subscribers.removeAll(ownSubscribers);
+    }
+}
@@ -0,0 +1,135 @@
+package ru.practicum.shareit.invalidation;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.booking.BookingChangedEvent;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.stream.BookingStatusStream;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemChangedEvent;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemsChangedEvent;
+import ru.practicum.shareit.item.availability.ItemAvailabilityIndex;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserChangedEvent;
+import ru.practicum.shareit.user.UserDeletedEvent;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Согласует кэши между экземплярами приложения. После коммита локальные события об изменении
+ * предметов и пользователей рассылаются через {@link InvalidationTransport}; получив сообщение
+ * от другого экземпляра, шина сбрасывает записи кэша второго уровня и временные шкалы занятости
+ * и обновляет поисковый индекс (а вместе с ним и кэш результатов поиска) по текущему состоянию из базы.
+ * Измененное бронирование, прочитанное из базы, шина передает и подписчикам {@link BookingStatusStream}
+ * на этом экземпляре.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class InvalidationBus {
+    private final String origin = UUID.randomUUID().toString();
+
+    private final InvalidationTransport transport;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ItemRepository itemRepository;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemAvailabilityIndex itemAvailabilityIndex;
+    private final BookingRepository bookingRepository;
+    private final BookingStatusStream bookingStatusStream;
+
+    @PostConstruct
+    public void subscribe() {
+        transport.subscribe(this::onMessage);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        publish(InvalidationMessage.Type.ITEM_CHANGED, event.getId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemsChanged(ItemsChangedEvent event) {
+        List<Long> ids = event.getItems().stream().map(ItemChangedEvent::getId).toList();
+        publish(new InvalidationMessage(origin, InvalidationMessage.Type.ITEMS_CHANGED, null, ids));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        publish(InvalidationMessage.Type.BOOKING_CHANGED, event.getBooking().getId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        publish(InvalidationMessage.Type.USER_CHANGED, event.getId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        publish(InvalidationMessage.Type.USER_DELETED, event.getId());
+    }
+
+    void onMessage(InvalidationMessage message) {
+        if (origin.equals(message.getOrigin())) {
+            return;
+        }
+        log.debug("Получено {}", message);
+        switch (message.getType()) {
+            case ITEM_CHANGED -> {
+                entityManagerFactory.getCache().evict(Item.class, message.getId());
+                itemSearchIndex.onItemChanged(itemRepository.findById(message.getId())
+                        .map(ItemChangedEvent::of)
+                        .orElseGet(() -> new ItemChangedEvent(message.getId(), null, null, null, false)));
+            }
+            case ITEMS_CHANGED -> {
+                message.getIds().forEach(id -> entityManagerFactory.getCache().evict(Item.class, id));
+                Map<Long, ItemChangedEvent> current = itemRepository.findAllById(message.getIds()).stream()
+                        .map(ItemChangedEvent::of)
+                        .collect(Collectors.toMap(ItemChangedEvent::getId, Function.identity()));
+                itemSearchIndex.onItemsChanged(new ItemsChangedEvent(message.getIds().stream()
+                        .map(id -> current.getOrDefault(id, new ItemChangedEvent(id, null, null, null, false)))
+                        .toList()));
+            }
+            case USER_CHANGED -> entityManagerFactory.getCache().evict(User.class, message.getId());
+            case USER_DELETED -> {
+                entityManagerFactory.getCache().evict(User.class, message.getId());
+                entityManagerFactory.getCache().evict(Item.class);
+                itemSearchIndex.onUserDeleted(new UserDeletedEvent(message.getId()));
+                itemAvailabilityIndex.invalidateAll();
+            }
+            case BOOKING_CHANGED -> bookingRepository.findById(message.getId()).ifPresent(booking -> {
+                itemAvailabilityIndex.invalidate(booking.getItem().getId());
+                bookingStatusStream.onBookingChanged(new BookingChangedEvent(BookingMapper.toBookingDto(booking),
+                        booking.getItem().getOwner().getId()));
+            });
+            case RESYNC -> {
+                entityManagerFactory.getCache().evictAll();
+                itemSearchIndex.rebuild();
+                itemAvailabilityIndex.invalidateAll();
+            }
+        }
+    }
+
+    private void publish(InvalidationMessage.Type type, Long id) {
+        publish(new InvalidationMessage(origin, type, id, null));
+    }
+
+    private void publish(InvalidationMessage message) {
+        try {
+            transport.publish(message);
+        } catch (RuntimeException e) {
+            log.warn("Не удалось разослать {}, другие экземпляры увидят изменение по истечении TTL кэшей",
+                    message, e);
+        }
+    }
+}
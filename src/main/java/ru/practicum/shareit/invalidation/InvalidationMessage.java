@@ -0,0 +1,40 @@
+package ru.practicum.shareit.invalidation;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Сообщение о зафиксированном изменении сущности. Несет только тип и id (для пачки предметов - список id):
+ * актуальное состояние получатель читает из базы сам, поэтому размер сообщения не зависит от длины описаний.
+ * Пачка импорта - не больше 500 id, что укладывается в предел NOTIFY в 8000 байт.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class InvalidationMessage {
+    private String origin;
+    private Type type;
+    private Long id;
+    private List<Long> ids;
+
+    public enum Type {
+        ITEM_CHANGED,
+        /**
+         * Изменились предметы из ids.
+         */
+        ITEMS_CHANGED,
+        USER_CHANGED,
+        USER_DELETED,
+        /**
+         * Изменилось бронирование, id - это id бронирования.
+         */
+        BOOKING_CHANGED,
+        /**
+         * Транспорт мог пропустить сообщения (например, переподключался), сбросить нужно все.
+         */
+        RESYNC
+    }
+}
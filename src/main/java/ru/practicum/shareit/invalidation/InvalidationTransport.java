@@ -0,0 +1,12 @@
+package ru.practicum.shareit.invalidation;
+
+import java.util.function.Consumer;
+
+/**
+ * Доставка {@link InvalidationMessage} всем экземплярам приложения, включая отправителя.
+ */
+public interface InvalidationTransport {
+    void publish(InvalidationMessage message);
+
+    void subscribe(Consumer<InvalidationMessage> subscriber);
+}
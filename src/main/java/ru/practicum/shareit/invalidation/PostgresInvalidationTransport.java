@@ -0,0 +1,150 @@
+package ru.practicum.shareit.invalidation;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Транспорт через Postgres NOTIFY/LISTEN. Отправка - pg_notify через общий пул, прием - отдельное
+ * соединение вне пула, которое слушает канал в фоновом потоке и переподключается при обрыве.
+ * Пока соединения не было, уведомления терялись, поэтому после переподключения подписчики
+ * получают {@link InvalidationMessage.Type#RESYNC}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.invalidation.transport", havingValue = "postgres")
+public class PostgresInvalidationTransport implements InvalidationTransport {
+    private static final int POLL_TIMEOUT_MILLIS = 1_000;
+    private static final long RECONNECT_DELAY_MILLIS = 5_000;
+    /**
+     * LISTEN не принимает параметров, поэтому имя канала подставляется в SQL как идентификатор. Без кавычек
+     * Postgres приводит его к нижнему регистру, а pg_notify берет имя как есть, так что допускаются только
+     * идентификаторы в нижнем регистре не длиннее 63 символов.
+     */
+    private static final Pattern CHANNEL_NAME = Pattern.compile("[a-z_][a-z0-9_]{0,62}");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final ObjectMapper objectMapper;
+    private final String channel;
+    private final List<Consumer<InvalidationMessage>> subscribers = new CopyOnWriteArrayList<>();
+    private volatile boolean running;
+    private Thread listener;
+
+    public PostgresInvalidationTransport(JdbcTemplate jdbcTemplate, DataSourceProperties dataSourceProperties,
+                                         ObjectMapper objectMapper,
+                                         @Value("${shareit.invalidation.channel}") String channel) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSourceProperties = dataSourceProperties;
+        this.objectMapper = objectMapper;
+        if (channel == null || !CHANNEL_NAME.matcher(channel).matches()) {
+            throw new IllegalArgumentException("Недопустимое имя канала shareit.invalidation.channel: " + channel);
+        }
+        this.channel = channel;
+    }
+
+    @Override
+    public void publish(InvalidationMessage message) {
+        try {
+            String payload = objectMapper.writeValueAsString(message);
+            jdbcTemplate.query("SELECT pg_notify(?, ?)", resultSet -> null, channel, payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сериализовать " + message, e);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<InvalidationMessage> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        listener = Thread.ofPlatform().daemon().name("invalidation-listener").start(this::listen);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        listener.interrupt();
+        listener.join(POLL_TIMEOUT_MILLIS * 2L);
+    }
+
+    private void listen() {
+        boolean reconnect = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                log.info("Подписка на канал {} установлена", channel);
+                if (reconnect) {
+                    deliver(new InvalidationMessage(null, InvalidationMessage.Type.RESYNC, null, null));
+                }
+                reconnect = true;
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            deliver(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    log.warn("Соединение для канала {} потеряно, переподключение через {} мс", channel,
+                            RECONNECT_DELAY_MILLIS, e);
+                    sleepBeforeReconnect();
+                }
+            }
+        }
+    }
+
+    private void deliver(String payload) {
+        try {
+            deliver(objectMapper.readValue(payload, InvalidationMessage.class));
+        } catch (JsonProcessingException e) {
+            log.warn("Пропущено нечитаемое сообщение в канале {}: {}", channel, payload);
+        }
+    }
+
+    private void deliver(InvalidationMessage message) {
+        for (Consumer<InvalidationMessage> subscriber : subscribers) {
+            try {
+                subscriber.accept(message);
+            } catch (RuntimeException e) {
+                log.warn("Ошибка обработки {}", message, e);
+            }
+        }
+    }
+
+    private void sleepBeforeReconnect() {
+        try {
+            Thread.sleep(RECONNECT_DELAY_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.item;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.user.UserDeletedEvent;
+
+/**
+ * Предметы удаленного пользователя удаляются каскадом в базе, минуя Hibernate, поэтому их записи
+ * в кэше второго уровня нужно сбросить самим. Регион items очищается целиком после коммита:
+ * удаление пользователя редкая операция, а id его предметов после каскада уже не узнать.
+ */
+@Component
+@RequiredArgsConstructor
+public class ItemCacheEvictor {
+    private final EntityManagerFactory entityManagerFactory;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        entityManagerFactory.getCache().evict(Item.class);
+    }
+}
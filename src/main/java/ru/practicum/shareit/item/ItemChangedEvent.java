@@ -0,0 +1,19 @@
+package ru.practicum.shareit.item;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ItemChangedEvent {
+    private Long id;
+    private Long ownerId;
+    private String name;
+    private String description;
+    private Boolean available;
+
+    public static ItemChangedEvent of(Item item) {
+        return new ItemChangedEvent(item.getId(), item.getOwner().getId(), item.getName(), item.getDescription(),
+                item.getAvailable());
+    }
+}
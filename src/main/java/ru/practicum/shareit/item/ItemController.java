@@ -1,15 +1,25 @@
 package ru.practicum.shareit.item;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.item.comment.CommentDto;
+import ru.practicum.shareit.item.dto.AvailabilityWindowDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportResult;
 import ru.practicum.shareit.item.dto.ItemWithDatesDto;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.ndjson.NdjsonResponseWriter;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Slf4j
 @RestController
@@ -17,6 +27,7 @@ import java.util.List;
 @RequestMapping("/items")
 public class ItemController {
     private final ItemService itemService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public ItemDto addItem(@RequestHeader("X-Sharer-User-Id") Long userId, @Valid @RequestBody ItemDto itemDto) {
@@ -25,6 +36,23 @@ public class ItemController {
         return createdItemDto;
     }
 
+    @PostMapping(path = "/bulk", consumes = NdjsonResponseWriter.MEDIA_TYPE)
+    public void importItems(@RequestHeader("X-Sharer-User-Id") Long userId,
+                            HttpServletRequest request,
+                            HttpServletResponse response) throws IOException {
+        AtomicLong created = new AtomicLong();
+        try (NdjsonResponseWriter<ItemImportResult> report =
+                     new NdjsonResponseWriter<>(objectMapper, ItemImportResult.class, response)) {
+            itemService.importItems(userId, request.getInputStream(), result -> {
+                if (result.getId() != null) {
+                    created.incrementAndGet();
+                }
+                report.accept(result);
+            });
+        }
+        log.info("Импортировано {} предметов пользователя с id: {}", created.get(), userId);
+    }
+
     @PatchMapping("/{itemId}")
     public ItemDto updateItem(@RequestHeader("X-Sharer-User-Id") Long userId,
                               @PathVariable Long itemId,
@@ -50,12 +78,24 @@ public class ItemController {
     }
 
     @GetMapping("/search")
-    public List<ItemDto> searchItems(@RequestParam String text) {
-        List<ItemDto> foundItemsDto = itemService.searchItems(text);
+    public List<ItemDto> searchItems(@RequestParam String text,
+                                     @RequestParam(defaultValue = "0") int from,
+                                     @RequestParam(defaultValue = "20") int size) {
+        List<ItemDto> foundItemsDto = itemService.searchItems(text, from, size);
         log.info("По запросу: {} найдено {} предметов, доступных для аренды", text, foundItemsDto.size());
         return foundItemsDto;
     }
 
+    @GetMapping("/{itemId}/availability")
+    public List<AvailabilityWindowDto> getAvailability(
+            @PathVariable Long itemId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        List<AvailabilityWindowDto> windows = itemService.getAvailability(itemId, from, to);
+        log.info("Для предмета с id: {} найдено {} свободных промежутков", itemId, windows.size());
+        return windows;
+    }
+
     @PostMapping("/{itemId}/comment")
     public CommentDto addComment(@RequestHeader("X-Sharer-User-Id") Long userId,
                               @PathVariable Long itemId,
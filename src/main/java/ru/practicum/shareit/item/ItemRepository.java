@@ -1,8 +1,16 @@
 package ru.practicum.shareit.item;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.item.dto.ItemWithDatesView;
+import ru.practicum.shareit.item.summary.ItemBookingSummary;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
     List<Item> findByOwnerId(Long ownerId);
@@ -10,4 +18,43 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
     List<Item> findByAvailableTrueAndNameContainingIgnoreCaseOrAvailableTrueAndDescriptionContainingIgnoreCase(String name, String description);
 
     Item findByIdAndOwnerId(Long id, Long ownerId);
+
+    /**
+     * Даты бронирований берутся из {@link ItemBookingSummary}, пока она актуальна. Если сводки нет
+     * или наступил ее refreshAt, даты считаются подзапросами по бронированиям.
+     */
+    @Query("SELECT new ru.practicum.shareit.item.dto.ItemWithDatesView(i.id, i.owner.id, i.name, i.description, " +
+            "i.available, " +
+            "CASE WHEN s.itemId IS NOT NULL AND (s.refreshAt IS NULL OR s.refreshAt > ?3) THEN s.lastBookingEnd " +
+            "ELSE (SELECT MAX(b.end) FROM Booking b WHERE b.item.id = i.id AND b.status = ?2 AND b.end < ?3) END, " +
+            "CASE WHEN s.itemId IS NOT NULL AND (s.refreshAt IS NULL OR s.refreshAt > ?3) THEN s.nextBookingStart " +
+            "ELSE (SELECT MIN(b.start) FROM Booking b WHERE b.item.id = i.id AND b.status = ?2 AND b.start > ?3) END) " +
+            "FROM Item i LEFT JOIN ItemBookingSummary s ON s.itemId = i.id " +
+            "WHERE i.owner.id = ?1 " +
+            "ORDER BY i.id")
+    List<ItemWithDatesView> findWithBookingDatesByOwnerId(Long ownerId, BookingStatus status, Instant now);
+
+    @Query("SELECT new ru.practicum.shareit.item.dto.ItemWithDatesView(i.id, i.owner.id, i.name, i.description, " +
+            "i.available, " +
+            "CASE WHEN s.itemId IS NOT NULL AND (s.refreshAt IS NULL OR s.refreshAt > ?3) THEN s.lastBookingEnd " +
+            "ELSE (SELECT MAX(b.end) FROM Booking b WHERE b.item.id = i.id AND b.status = ?2 AND b.end < ?3) END, " +
+            "CASE WHEN s.itemId IS NOT NULL AND (s.refreshAt IS NULL OR s.refreshAt > ?3) THEN s.nextBookingStart " +
+            "ELSE (SELECT MIN(b.start) FROM Booking b WHERE b.item.id = i.id AND b.status = ?2 AND b.start > ?3) END) " +
+            "FROM Item i LEFT JOIN ItemBookingSummary s ON s.itemId = i.id " +
+            "WHERE i.id = ?1")
+    Optional<ItemWithDatesView> findWithBookingDatesById(Long itemId, BookingStatus status, Instant now);
+
+    List<Item> findByIdInAndAvailableTrue(List<Long> ids);
+
+    /**
+     * Предметы из ids, недоступные из-за подтвержденного бронирования, у которых не осталось текущих
+     * и будущих бронирований в статусе status. Предметы, отключенные владельцем, не выбираются.
+     */
+    @Query("SELECT i FROM Item i WHERE i.id IN ?1 AND i.available = false AND i.disabledByBooking = true " +
+            "AND NOT EXISTS (" +
+            "SELECT b.id FROM Booking b WHERE b.item.id = i.id AND b.status = ?2 AND b.end > ?3)")
+    List<Item> findReleasableByIdIn(Collection<Long> ids, BookingStatus status, Instant now);
+
+    @Query("SELECT i.id, i.name, i.description, i.available, i.owner.id FROM Item i WHERE i.id > ?1 ORDER BY i.id")
+    List<Object[]> findSearchRowsAfter(Long afterId, Limit limit);
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.item;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Изменения нескольких предметов в одной транзакции (например, часть импорта). Слушатели обрабатывают
+ * пачку за один проход, а не по {@link ItemChangedEvent} на каждый предмет.
+ */
+@Data
+@AllArgsConstructor
+public class ItemsChangedEvent {
+    private List<ItemChangedEvent> items;
+}
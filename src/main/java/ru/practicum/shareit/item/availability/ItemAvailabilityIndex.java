@@ -0,0 +1,203 @@
+package ru.practicum.shareit.item.availability;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.booking.BookingChangedEvent;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.user.UserDeletedEvent;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Занятость предметов по подтвержденным и ожидающим бронированиям. Временная шкала предмета загружается
+ * из базы при первом обращении, после чего обновляется по {@link BookingChangedEvent}, так что поиск
+ * свободных промежутков стоит O(log n + k) по бронированиям этого предмета. Шкалы редко запрашиваемых
+ * предметов вытесняются.
+ */
+@Component
+public class ItemAvailabilityIndex {
+    private static final int MAX_TIMELINES = 10_000;
+    private static final Duration IDLE_TIMEOUT = Duration.ofMinutes(30);
+    private static final Set<BookingStatus> OCCUPYING = Set.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+
+    private final BookingRepository bookingRepository;
+    private final Cache<Long, ItemTimeline> timelines = Caffeine.newBuilder()
+            .maximumSize(MAX_TIMELINES)
+            .expireAfterAccess(IDLE_TIMEOUT)
+            .recordStats()
+            .build();
+    private final AtomicLong changes = new AtomicLong();
+
+    public ItemAvailabilityIndex(BookingRepository bookingRepository, MeterRegistry meterRegistry) {
+        this.bookingRepository = bookingRepository;
+        CaffeineCacheMetrics.monitor(meterRegistry, timelines, "itemAvailability");
+    }
+
+    /**
+     * Свободные промежутки предмета внутри [from, to), по возрастанию.
+     */
+    public List<Window> freeWindows(Long itemId, Instant from, Instant to) {
+        return timeline(itemId).freeWindows(from, to);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        changes.incrementAndGet();
+        BookingDto booking = event.getBooking();
+        ItemTimeline timeline = timelines.getIfPresent(booking.getItem().getId());
+        if (timeline != null) {
+            timeline.remove(booking.getId());
+            if (OCCUPYING.contains(booking.getStatus())) {
+                timeline.add(booking.getId(), booking.getStart().atZone(ZoneId.systemDefault()).toInstant(),
+                        booking.getEnd().atZone(ZoneId.systemDefault()).toInstant());
+            }
+        }
+    }
+
+    /**
+     * Бронирования удаленного пользователя удаляются каскадно и могли быть на любых предметах.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        invalidateAll();
+    }
+
+    public void invalidate(Long itemId) {
+        changes.incrementAndGet();
+        timelines.invalidate(itemId);
+    }
+
+    public void invalidateAll() {
+        changes.incrementAndGet();
+        timelines.invalidateAll();
+    }
+
+    /**
+     * Изменение, зафиксированное во время загрузки, могло не попасть в выборку и было пропущено
+     * обработчиком событий, потому что шкалы еще не было в кэше. Такая шкала возвращается вызывающему,
+     * но не кэшируется.
+     */
+    private ItemTimeline timeline(Long itemId) {
+        ItemTimeline timeline = timelines.getIfPresent(itemId);
+        if (timeline != null) {
+            return timeline;
+        }
+        long version = changes.get();
+        ItemTimeline loaded = new ItemTimeline();
+        for (Object[] row : bookingRepository.findIntervalRowsByItemId(itemId, OCCUPYING, Instant.now())) {
+            loaded.add((Long) row[0], (Instant) row[1], (Instant) row[2]);
+        }
+        ItemTimeline cached = timelines.asMap().putIfAbsent(itemId, loaded);
+        if (cached != null) {
+            return cached;
+        }
+        if (changes.get() != version) {
+            timelines.asMap().remove(itemId, loaded);
+        }
+        return loaded;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Window {
+        private Instant start;
+        private Instant end;
+    }
+
+    @Data
+    @AllArgsConstructor
+    private static class Slot {
+        private Instant start;
+        private Long bookingId;
+    }
+
+    /**
+     * Бронирования одного предмета, упорядоченные по началу. Бронирования могут пересекаться друг
+     * с другом (несколько ожидающих подтверждения), поэтому обход начинается с from минус самая длинная
+     * продолжительность: раньше не может начинаться ни одно бронирование, которое еще идет в момент from.
+     */
+    private static class ItemTimeline {
+        private static final Comparator<Slot> ORDER = Comparator.comparing(Slot::getStart)
+                .thenComparing(Slot::getBookingId);
+
+        private final Lock lock = new ReentrantLock();
+        private final NavigableMap<Slot, Instant> ends = new TreeMap<>(ORDER);
+        private final Map<Long, Slot> slots = new HashMap<>();
+        private Duration longest = Duration.ZERO;
+
+        void add(Long bookingId, Instant start, Instant end) {
+            lock.lock();
+            try {
+                Slot slot = new Slot(start, bookingId);
+                slots.put(bookingId, slot);
+                ends.put(slot, end);
+                Duration length = Duration.between(start, end);
+                if (length.compareTo(longest) > 0) {
+                    longest = length;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void remove(Long bookingId) {
+            lock.lock();
+            try {
+                Slot slot = slots.remove(bookingId);
+                if (slot != null) {
+                    ends.remove(slot);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        List<Window> freeWindows(Instant from, Instant to) {
+            List<Window> windows = new ArrayList<>();
+            Instant cursor = from;
+            lock.lock();
+            try {
+                Slot lowest = new Slot(from.minus(longest), Long.MIN_VALUE);
+                Slot highest = new Slot(to, Long.MIN_VALUE);
+                for (Map.Entry<Slot, Instant> booking : ends.subMap(lowest, true, highest, false).entrySet()) {
+                    Instant start = booking.getKey().getStart();
+                    Instant end = booking.getValue();
+                    if (!end.isAfter(cursor)) {
+                        continue;
+                    }
+                    if (start.isAfter(cursor)) {
+                        windows.add(new Window(cursor, start));
+                    }
+                    cursor = end;
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (cursor.isBefore(to)) {
+                windows.add(new Window(cursor, to));
+            }
+            return windows;
+        }
+    }
+}
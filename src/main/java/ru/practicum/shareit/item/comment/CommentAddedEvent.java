@@ -0,0 +1,11 @@
+package ru.practicum.shareit.item.comment;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class CommentAddedEvent {
+    private Long itemId;
+    private CommentDto comment;
+}
@@ -2,6 +2,9 @@ package ru.practicum.shareit.item.comment;
 
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 public class CommentMapper {
     public static CommentDto toCommentDto(Comment comment) {
@@ -16,6 +19,24 @@ public class CommentMapper {
         );
     }
 
+    public static CommentDto toCommentDto(CommentView comment) {
+        if (comment == null) {
+            return null;
+        }
+        return new CommentDto(
+                comment.getId(),
+                comment.getText(),
+                comment.getAuthorName(),
+                LocalDateTime.ofInstant(comment.getCreated(), ZoneOffset.UTC)
+        );
+    }
+
+    public static Map<Long, List<CommentDto>> toCommentDtosByItemId(List<CommentView> comments) {
+        return comments.stream()
+                .collect(Collectors.groupingBy(CommentView::getItemId,
+                        Collectors.mapping(CommentMapper::toCommentDto, Collectors.toList())));
+    }
+
     public static Comment toComment(CommentDto commentDto) {
         if (commentDto == null) {
             return null;
@@ -1,19 +1,15 @@
 package ru.practicum.shareit.item.comment;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
-    List<Comment> findAllByItem_IdIn(List<Long> itemIds);
-
-    default Map<Long, List<Comment>> findCommentByItemIds(List<Long> itemIds) {
-        return findAllByItem_IdIn(itemIds).stream()
-                .collect(Collectors.groupingBy(c -> c.getItem().getId()));
-    }
-
-    List<Comment> findCommentByItemId(Long itemId);
-}
\ No newline at end of file
+    @Query("SELECT new ru.practicum.shareit.item.comment.CommentView(c.item.id, c.id, c.text, a.name, c.created) " +
+            "FROM Comment c JOIN c.author a " +
+            "WHERE c.item.id IN ?1 " +
+            "ORDER BY c.created")
+    List<CommentView> findViewsByItemIds(List<Long> itemIds);
+}
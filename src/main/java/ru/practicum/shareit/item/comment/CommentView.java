@@ -0,0 +1,23 @@
+package ru.practicum.shareit.item.comment;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CommentView {
+
+    private Long itemId;
+
+    private Long id;
+
+    private String text;
+
+    private String authorName;
+
+    private Instant created;
+}
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Промежуток, в который предмет не занят ни подтвержденными, ни ожидающими подтверждения бронированиями.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AvailabilityWindowDto {
+    private LocalDateTime start;
+
+    private LocalDateTime end;
+}
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Результат импорта одной строки NDJSON: id созданного предмета либо описание ошибки.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ItemImportResult {
+
+    private Long line;
+
+    private Long id;
+
+    private String error;
+}
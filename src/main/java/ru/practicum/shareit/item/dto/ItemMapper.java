@@ -1,8 +1,13 @@
 package ru.practicum.shareit.item.dto;
 
 import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.availability.ItemAvailabilityIndex;
+import ru.practicum.shareit.item.comment.CommentDto;
 
-import java.util.ArrayList;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
 
 public class ItemMapper {
     public static ItemDto toItemDto(Item item) {
@@ -25,16 +30,24 @@ public class ItemMapper {
         return item;
     }
 
-    public static ItemWithDatesDto toItemWithDatesDto(Item item) {
+    public static ItemWithDatesDto toItemWithDatesDto(ItemWithDatesView item, List<CommentDto> comments) {
         if (item == null) return null;
         ItemWithDatesDto dto = new ItemWithDatesDto();
         dto.setId(item.getId());
         dto.setName(item.getName());
         dto.setDescription(item.getDescription());
         dto.setAvailable(item.getAvailable());
-        dto.setLastBooking(null);
-        dto.setNextBooking(null);
-        dto.setComments(new ArrayList<>());
+        dto.setLastBooking(toLocalDateTime(item.getLastBooking()));
+        dto.setNextBooking(toLocalDateTime(item.getNextBooking()));
+        dto.setComments(comments);
         return dto;
     }
+
+    public static AvailabilityWindowDto toAvailabilityWindowDto(ItemAvailabilityIndex.Window window) {
+        return new AvailabilityWindowDto(toLocalDateTime(window.getStart()), toLocalDateTime(window.getEnd()));
+    }
+
+    private static LocalDateTime toLocalDateTime(Instant instant) {
+        return instant == null ? null : LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Строка выборки предмета вместе с датами последнего и следующего подтвержденного бронирования.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ItemWithDatesView {
+
+    private Long id;
+
+    private Long ownerId;
+
+    private String name;
+
+    private String description;
+
+    private Boolean available;
+
+    private Instant lastBooking;
+
+    private Instant nextBooking;
+}
@@ -0,0 +1,83 @@
+package ru.practicum.shareit.item.search;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Готовые страницы результатов поиска по нормализованному тексту запроса. Записи сбрасываются
+ * {@link ItemSearchIndex} точечно: только запросы, которые входят в старый или новый текст измененного
+ * предмета. Ответы остальных запросов от такого изменения не зависят.
+ * Страница, вычисленная во время сброса, в кэше не остается: см. {@link #put}.
+ */
+@Component
+public class ItemSearchCache {
+    private static final int MAX_ENTRIES = 10_000;
+    private static final Duration TTL = Duration.ofMinutes(10);
+
+    private final Cache<SearchKey, List<ItemDto>> results = Caffeine.newBuilder()
+            .maximumSize(MAX_ENTRIES)
+            .expireAfterWrite(TTL)
+            .recordStats()
+            .build();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public ItemSearchCache(MeterRegistry meterRegistry) {
+        CaffeineCacheMetrics.monitor(meterRegistry, results, "itemSearch");
+    }
+
+    public List<ItemDto> get(String text, int from, int size) {
+        return results.getIfPresent(new SearchKey(ItemSearchIndex.normalize(text), from, size));
+    }
+
+    /**
+     * Номер последнего сброса. Читается до вычисления результата и передается в {@link #put}.
+     */
+    public long version() {
+        return invalidations.get();
+    }
+
+    /**
+     * Сохраняет результат, если с момента version() не было сбросов. Сброс сначала увеличивает счетчик,
+     * а потом удаляет записи, поэтому запись, добавленная параллельно со сбросом, будет удалена
+     * либо сбросом, либо проверкой ниже.
+     */
+    public void put(String text, int from, int size, List<ItemDto> page, long version) {
+        SearchKey key = new SearchKey(ItemSearchIndex.normalize(text), from, size);
+        results.put(key, page);
+        if (invalidations.get() != version) {
+            results.invalidate(key);
+        }
+    }
+
+    /**
+     * Сбрасывает запросы, текст которых входит хотя бы в одну из строк (уже нормализованных).
+     */
+    public void invalidateMatching(Collection<String> texts) {
+        invalidations.incrementAndGet();
+        results.asMap().keySet().removeIf(key -> texts.stream().anyMatch(text -> text.contains(key.getQuery())));
+    }
+
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        results.invalidateAll();
+    }
+
+    @Data
+    @AllArgsConstructor
+    private static class SearchKey {
+        private String query;
+        private int from;
+        private int size;
+    }
+}
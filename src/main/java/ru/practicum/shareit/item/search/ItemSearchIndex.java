@@ -0,0 +1,286 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.item.ItemChangedEvent;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemsChangedEvent;
+import ru.practicum.shareit.user.UserDeletedEvent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Инвертированный триграммный индекс по названию и описанию доступных предметов.
+ * Поиск пересекает списки предметов для каждой триграммы запроса и проверяет вхождение подстроки,
+ * поэтому результат совпадает с LIKE '%text%' без полного сканирования таблицы.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemSearchIndex {
+    private static final int GRAM_LENGTH = 3;
+    private static final int REBUILD_BATCH_SIZE = 1000;
+    private static final int NAME_MATCH_WEIGHT = 3;
+    private static final Comparator<ScoredItem> RANKING = Comparator.comparingInt(ScoredItem::getScore).reversed()
+            .thenComparing(ScoredItem::getId);
+
+    private final ItemRepository itemRepository;
+    private final ItemSearchCache itemSearchCache;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, IndexedItem> items = new HashMap<>();
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private final Set<Long> changedDuringRebuild = new HashSet<>();
+    private volatile boolean ready;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Возвращает id доступных предметов, в названии или описании которых встречается text,
+     * упорядоченные по релевантности: совпадение в названии весит больше, чем в описании,
+     * и учитывается число вхождений. Из всех совпадений в куче удерживаются только from + size лучших.
+     */
+    public List<Long> search(String text, int from, int size) {
+        String query = normalize(text);
+        long limit = (long) from + size;
+        PriorityQueue<ScoredItem> top = new PriorityQueue<>(RANKING.reversed());
+        lock.readLock().lock();
+        try {
+            Collection<Long> candidates = query.length() < GRAM_LENGTH ? items.keySet() : intersect(gramsOf(query));
+            for (Long id : candidates) {
+                int score = items.get(id).score(query);
+                if (score == 0) {
+                    continue;
+                }
+                ScoredItem scored = new ScoredItem(id, score);
+                if (top.size() < limit) {
+                    top.add(scored);
+                } else if (RANKING.compare(scored, top.peek()) < 0) {
+                    top.poll();
+                    top.add(scored);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<ScoredItem> ranked = new ArrayList<>(top);
+        ranked.sort(RANKING);
+        return ranked.stream()
+                .skip(from)
+                .map(ScoredItem::getId)
+                .toList();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        apply(List.of(event));
+    }
+
+    /**
+     * Пачка применяется под одной блокировкой и сбрасывает кэш результатов один раз.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemsChanged(ItemsChangedEvent event) {
+        apply(event.getItems());
+    }
+
+    /**
+     * Предметы удаленного пользователя удаляются из базы каскадно, без ItemChangedEvent.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        lock.writeLock().lock();
+        try {
+            List<Long> ownedItemIds = items.values().stream()
+                    .filter(item -> event.getId().equals(item.getOwnerId()))
+                    .map(IndexedItem::getId)
+                    .toList();
+            ownedItemIds.forEach(this::remove);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        itemSearchCache.invalidateAll();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            items.clear();
+            postings.clear();
+            changedDuringRebuild.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long afterId = 0;
+        int indexed = 0;
+        List<Object[]> rows;
+        do {
+            rows = itemRepository.findSearchRowsAfter(afterId, Limit.of(REBUILD_BATCH_SIZE));
+            lock.writeLock().lock();
+            try {
+                for (Object[] row : rows) {
+                    Long id = (Long) row[0];
+                    if (Boolean.TRUE.equals(row[3]) && !changedDuringRebuild.contains(id)) {
+                        add(new IndexedItem(id, (Long) row[4], normalize((String) row[1]), normalize((String) row[2])));
+                        indexed++;
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (!rows.isEmpty()) {
+                afterId = (Long) rows.get(rows.size() - 1)[0];
+            }
+        } while (rows.size() == REBUILD_BATCH_SIZE);
+
+        lock.writeLock().lock();
+        try {
+            changedDuringRebuild.clear();
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        itemSearchCache.invalidateAll();
+        log.info("Поисковый индекс построен, проиндексировано {} доступных предметов", indexed);
+    }
+
+    /**
+     * Кэш результатов сбрасывается после снятия блокировки, чтобы перебор его ключей не задерживал поиск.
+     * Страница, посчитанная по старому индексу между обновлением и сбросом, в кэше не останется:
+     * сброс меняет версию кэша уже после обновления индекса, см. {@link ItemSearchCache#put}.
+     */
+    private void apply(Collection<ItemChangedEvent> events) {
+        List<String> affectedTexts = new ArrayList<>(events.size() * 4);
+        lock.writeLock().lock();
+        try {
+            for (ItemChangedEvent event : events) {
+                if (!ready) {
+                    changedDuringRebuild.add(event.getId());
+                }
+                IndexedItem previous = remove(event.getId());
+                if (previous != null) {
+                    affectedTexts.add(previous.getName());
+                    affectedTexts.add(previous.getDescription());
+                }
+                if (Boolean.TRUE.equals(event.getAvailable())) {
+                    IndexedItem current = new IndexedItem(event.getId(), event.getOwnerId(),
+                            normalize(event.getName()), normalize(event.getDescription()));
+                    add(current);
+                    affectedTexts.add(current.getName());
+                    affectedTexts.add(current.getDescription());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        itemSearchCache.invalidateMatching(affectedTexts);
+    }
+
+    private void add(IndexedItem item) {
+        items.put(item.getId(), item);
+        for (String gram : item.grams()) {
+            postings.computeIfAbsent(gram, g -> new HashSet<>()).add(item.getId());
+        }
+    }
+
+    private IndexedItem remove(Long id) {
+        IndexedItem item = items.remove(id);
+        if (item == null) {
+            return null;
+        }
+        for (String gram : item.grams()) {
+            Set<Long> posting = postings.get(gram);
+            posting.remove(id);
+            if (posting.isEmpty()) {
+                postings.remove(gram);
+            }
+        }
+        return item;
+    }
+
+    private Collection<Long> intersect(Set<String> queryGrams) {
+        List<Set<Long>> lists = new ArrayList<>(queryGrams.size());
+        for (String gram : queryGrams) {
+            Set<Long> posting = postings.get(gram);
+            if (posting == null) {
+                return List.of();
+            }
+            lists.add(posting);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+        Set<Long> smallest = lists.get(0);
+        List<Set<Long>> others = lists.subList(1, lists.size());
+        return smallest.stream()
+                .filter(id -> others.stream().allMatch(posting -> posting.contains(id)))
+                .toList();
+    }
+
+    private static Set<String> gramsOf(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    private static int countOccurrences(String text, String query) {
+        int count = 0;
+        for (int i = text.indexOf(query); i >= 0; i = text.indexOf(query, i + 1)) {
+            count++;
+        }
+        return count;
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    @Data
+    @AllArgsConstructor
+    private static class IndexedItem {
+        private Long id;
+        private Long ownerId;
+        private String name;
+        private String description;
+
+        int score(String query) {
+            return NAME_MATCH_WEIGHT * countOccurrences(name, query) + countOccurrences(description, query);
+        }
+
+        Set<String> grams() {
+            Set<String> grams = gramsOf(name);
+            grams.addAll(gramsOf(description));
+            return grams;
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    private static class ScoredItem {
+        private Long id;
+        private int score;
+    }
+}
@@ -2,10 +2,16 @@ package ru.practicum.shareit.item.service;
 
 import jakarta.validation.Valid;
 import ru.practicum.shareit.item.comment.CommentDto;
+import ru.practicum.shareit.item.dto.AvailabilityWindowDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportResult;
 import ru.practicum.shareit.item.dto.ItemWithDatesDto;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ItemService {
     ItemDto addItem(Long userId, ItemDto itemDto);
@@ -18,7 +24,11 @@ public interface ItemService {
 
     List<ItemWithDatesDto> getItemsByOwner(Long ownerId);
 
-    List<ItemDto> searchItems(String text);
+    List<ItemDto> searchItems(String text, int from, int size);
+
+    List<AvailabilityWindowDto> getAvailability(Long itemId, LocalDateTime from, LocalDateTime to);
+
+    void importItems(Long userId, InputStream ndjson, Consumer<ItemImportResult> report) throws IOException;
 
     CommentDto addComment(Long userId, Long itemId, @Valid CommentDto commentDto);
 }
\ No newline at end of file
@@ -1,29 +1,60 @@
 package ru.practicum.shareit.item.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.booking.BookingRepository;
 import ru.practicum.shareit.exception.CustomValidationException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemChangedEvent;
+import ru.practicum.shareit.item.ItemsChangedEvent;
+import ru.practicum.shareit.item.availability.ItemAvailabilityIndex;
 import ru.practicum.shareit.item.comment.Comment;
+import ru.practicum.shareit.item.comment.CommentAddedEvent;
 import ru.practicum.shareit.item.comment.CommentDto;
 import ru.practicum.shareit.item.comment.CommentMapper;
 import ru.practicum.shareit.item.comment.CommentRepository;
+import ru.practicum.shareit.item.dto.AvailabilityWindowDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportResult;
 import ru.practicum.shareit.item.dto.ItemMapper;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.item.dto.ItemWithDatesDto;
+import ru.practicum.shareit.item.dto.ItemWithDatesView;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserRepository;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static ru.practicum.shareit.booking.BookingStatus.APPROVED;
@@ -32,34 +63,53 @@ import static ru.practicum.shareit.booking.BookingStatus.APPROVED;
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class ItemServiceImpl implements ItemService {
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+    private static final int IMPORT_CHUNK_SIZE = 500;
+
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemAvailabilityIndex itemAvailabilityIndex;
+    private final ItemSearchCache itemSearchCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
 
     @Override
     @Transactional
     public ItemDto addItem(Long userId, ItemDto itemDto) {
         Item item = ItemMapper.toItem(itemDto);
+        item.setId(null);
         item.setOwner(userRepository.findById(userId)
                 .orElseThrow(() -> new NotFoundException(String.format("Пользователь с id: %d не найден", userId))));
-        return ItemMapper.toItemDto(itemRepository.save(item));
+        Item savedItem = itemRepository.save(item);
+        eventPublisher.publishEvent(ItemChangedEvent.of(savedItem));
+        return ItemMapper.toItemDto(savedItem);
     }
 
     @Override
     @Transactional
+    @Retryable(retryFor = OptimisticLockingFailureException.class, maxAttempts = 3,
+            backoff = @Backoff(delay = 20, multiplier = 2, random = true))
     public ItemDto updateItem(Long userId, Long itemId, ItemDto itemDto) {
-        User owner = userRepository.findById(userId)
+        userRepository.findById(userId)
                 .orElseThrow(() -> new NotFoundException(String.format("Пользователь с id: %d не найден", userId)));
-        itemRepository.findById(itemId);
-        ItemDto oldItem = getItemByIdAndOwnerId(itemId, userId);
-        Item update = new Item();
-        update.setId(itemId);
-        update.setName(itemDto.getName() != null ? itemDto.getName() : oldItem.getName());
-        update.setDescription(itemDto.getDescription() != null ? itemDto.getDescription() : oldItem.getDescription());
-        update.setAvailable(itemDto.getAvailable() != null ? itemDto.getAvailable() : oldItem.getAvailable());
-        update.setOwner(owner);
-        return ItemMapper.toItemDto(itemRepository.save(update));
+        Item item = itemRepository.findByIdAndOwnerId(itemId, userId);
+        if (itemDto.getName() != null) {
+            item.setName(itemDto.getName());
+        }
+        if (itemDto.getDescription() != null) {
+            item.setDescription(itemDto.getDescription());
+        }
+        if (itemDto.getAvailable() != null) {
+            item.setAvailable(itemDto.getAvailable());
+            item.setDisabledByBooking(false);
+        }
+        eventPublisher.publishEvent(ItemChangedEvent.of(item));
+        return ItemMapper.toItemDto(item);
     }
 
     @Override
@@ -69,54 +119,130 @@ public class ItemServiceImpl implements ItemService {
 
     @Override
     public ItemWithDatesDto getItemByIdAndUserId(Long itemId, Long userId) {
-        userRepository.findById(userId);
-        Item item = itemRepository.findById(itemId)
+        ItemWithDatesView item = itemRepository.findWithBookingDatesById(itemId, APPROVED, Instant.now())
                 .orElseThrow(() -> new NotFoundException(String.format("Предмет с id: %d не найден", itemId)));
-        ItemWithDatesDto foundItem = ItemMapper.toItemWithDatesDto(item);
-        if (item.getOwner().getId().equals(userId)) {
-            foundItem.setNextBooking(getLocalDateTimeOrNull(
-                    bookingRepository.findNextBookingStartDate(itemId, APPROVED, Instant.now())));
-            foundItem.setLastBooking(getLocalDateTimeOrNull(
-                    bookingRepository.findLastBookingEndDate(itemId, APPROVED, Instant.now())));
-        }
-        foundItem.setComments(commentRepository.findCommentByItemId(itemId)
-                .stream().map(CommentMapper::toCommentDto).toList());
-        return foundItem;
+        if (!item.getOwnerId().equals(userId)) {
+            item.setLastBooking(null);
+            item.setNextBooking(null);
+        }
+        List<CommentDto> comments = commentRepository.findViewsByItemIds(List.of(itemId)).stream()
+                .map(CommentMapper::toCommentDto)
+                .toList();
+        return ItemMapper.toItemWithDatesDto(item, comments);
     }
 
     @Override
     public List<ItemWithDatesDto> getItemsByOwner(Long ownerId) {
-        userRepository.findById(ownerId);
-        List<Item> items = itemRepository.findByOwnerId(ownerId);
+        List<ItemWithDatesView> items = itemRepository.findWithBookingDatesByOwnerId(ownerId, APPROVED, Instant.now());
         if (items.isEmpty()) {
             return List.of();
         }
-        List<Long> itemIds = items.stream().map(Item::getId).toList();
-        Map<Long, Instant> nextBookingStarts = bookingRepository.findNextBookingStarts(itemIds, APPROVED, Instant.now());
-        Map<Long, Instant> lastBookingEnds = bookingRepository.findLastBookingEnds(itemIds, APPROVED, Instant.now());
-        Map<Long, List<Comment>> comments = commentRepository.findCommentByItemIds(itemIds);
-        return items.stream().map(item -> {
-            ItemWithDatesDto dto = ItemMapper.toItemWithDatesDto(item);
-            Instant nextInstant = nextBookingStarts.get(item.getId());
-            dto.setNextBooking(nextInstant != null ?
-                    nextInstant.atZone(ZoneId.systemDefault()).toLocalDateTime() : null);
-            Instant lastInstant = lastBookingEnds.get(item.getId());
-            dto.setLastBooking(lastInstant != null ?
-                    lastInstant.atZone(ZoneId.systemDefault()).toLocalDateTime() : null);
-            List<CommentDto> commentsById = comments.getOrDefault(item.getId(), List.of()).stream()
-                    .map(CommentMapper::toCommentDto).collect(Collectors.toList());
-            dto.setComments(commentsById);
-            return dto;
-        }).toList();
+        List<Long> itemIds = items.stream().map(ItemWithDatesView::getId).toList();
+        Map<Long, List<CommentDto>> comments = CommentMapper.toCommentDtosByItemId(
+                commentRepository.findViewsByItemIds(itemIds));
+        return items.stream()
+                .map(item -> ItemMapper.toItemWithDatesDto(item, comments.getOrDefault(item.getId(), List.of())))
+                .toList();
     }
 
     @Override
-    public List<ItemDto> searchItems(String text) {
+    public List<ItemDto> searchItems(String text, int from, int size) {
+        if (from < 0 || size < 1 || size > MAX_SEARCH_PAGE_SIZE) {
+            throw new CustomValidationException(String.format(
+                    "Параметр from должен быть неотрицательным, а size - в диапазоне от 1 до %d", MAX_SEARCH_PAGE_SIZE));
+        }
         if (text == null || text.isBlank()) {
             return List.of();
         }
-        return itemRepository.findByAvailableTrueAndNameContainingIgnoreCaseOrAvailableTrueAndDescriptionContainingIgnoreCase(text, text)
-                .stream().map(ItemMapper::toItemDto).toList();
+        if (!itemSearchIndex.isReady()) {
+            return itemRepository.findByAvailableTrueAndNameContainingIgnoreCaseOrAvailableTrueAndDescriptionContainingIgnoreCase(text, text)
+                    .stream().skip(from).limit(size).map(ItemMapper::toItemDto).toList();
+        }
+        List<ItemDto> cached = itemSearchCache.get(text, from, size);
+        if (cached != null) {
+            return cached;
+        }
+        long cacheVersion = itemSearchCache.version();
+        List<Long> rankedIds = itemSearchIndex.search(text, from, size);
+        List<ItemDto> page = List.of();
+        if (!rankedIds.isEmpty()) {
+            Map<Long, Item> foundItems = itemRepository.findByIdInAndAvailableTrue(rankedIds).stream()
+                    .collect(Collectors.toMap(Item::getId, Function.identity()));
+            page = rankedIds.stream()
+                    .map(foundItems::get)
+                    .filter(Objects::nonNull)
+                    .map(ItemMapper::toItemDto)
+                    .toList();
+        }
+        itemSearchCache.put(text, from, size, page, cacheVersion);
+        return page;
+    }
+
+    /**
+     * Прошедшее время свободным не считается, поэтому начало промежутка не раньше текущего момента.
+     */
+    @Override
+    public List<AvailabilityWindowDto> getAvailability(Long itemId, LocalDateTime from, LocalDateTime to) {
+        if (!to.isAfter(from)) {
+            throw new CustomValidationException("Параметр to должен быть позже параметра from");
+        }
+        Item item = itemRepository.findById(itemId)
+                .orElseThrow(() -> new NotFoundException(String.format("Предмет с id: %d не найден", itemId)));
+        if (!item.getAvailable()) {
+            return List.of();
+        }
+        Instant now = Instant.now();
+        Instant start = from.atZone(ZoneId.systemDefault()).toInstant();
+        Instant end = to.atZone(ZoneId.systemDefault()).toInstant();
+        if (!end.isAfter(now)) {
+            return List.of();
+        }
+        return itemAvailabilityIndex.freeWindows(itemId, start.isBefore(now) ? now : start, end).stream()
+                .map(ItemMapper::toAvailabilityWindowDto)
+                .toList();
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void importItems(Long userId, InputStream ndjson, Consumer<ItemImportResult> report) throws IOException {
+        User owner = userRepository.findById(userId)
+                .orElseThrow(() -> new NotFoundException(String.format("Пользователь с id: %d не найден", userId)));
+        ObjectReader itemReader = objectMapper.readerFor(ItemDto.class);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(ndjson, StandardCharsets.UTF_8));
+        List<Item> chunk = new ArrayList<>(IMPORT_CHUNK_SIZE);
+        List<Long> chunkLines = new ArrayList<>(IMPORT_CHUNK_SIZE);
+        long lineNumber = 0;
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            ItemDto itemDto;
+            try {
+                itemDto = itemReader.readValue(line);
+            } catch (JsonProcessingException e) {
+                report.accept(new ItemImportResult(lineNumber, null, "Некорректный JSON: " + e.getOriginalMessage()));
+                continue;
+            }
+            Set<ConstraintViolation<ItemDto>> violations = validator.validate(itemDto);
+            if (!violations.isEmpty()) {
+                report.accept(new ItemImportResult(lineNumber, null, violations.stream()
+                        .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                        .collect(Collectors.joining("; "))));
+                continue;
+            }
+            Item item = ItemMapper.toItem(itemDto);
+            item.setId(null);
+            item.setOwner(owner);
+            chunk.add(item);
+            chunkLines.add(lineNumber);
+            if (chunk.size() == IMPORT_CHUNK_SIZE) {
+                saveImportChunk(chunk, chunkLines, report);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            saveImportChunk(chunk, chunkLines, report);
+        }
     }
 
     @Override
@@ -134,7 +260,29 @@ public class ItemServiceImpl implements ItemService {
                     "Пользователь с id: %d не завершил аренду предмета с id: %d", userId, itemId));
         }
         Comment comment = createCommentFromDto(commentDto, user, item);
-        return CommentMapper.toCommentDto(commentRepository.save(comment));
+        CommentDto savedComment = CommentMapper.toCommentDto(commentRepository.save(comment));
+        eventPublisher.publishEvent(new CommentAddedEvent(itemId, savedComment));
+        return savedComment;
+    }
+
+    private void saveImportChunk(List<Item> chunk, List<Long> chunkLines, Consumer<ItemImportResult> report) {
+        try {
+            List<Item> savedItems = transactionTemplate.execute(status -> {
+                List<Item> saved = itemRepository.saveAll(chunk);
+                itemRepository.flush();
+                eventPublisher.publishEvent(new ItemsChangedEvent(saved.stream().map(ItemChangedEvent::of).toList()));
+                return saved;
+            });
+            for (int i = 0; i < savedItems.size(); i++) {
+                report.accept(new ItemImportResult(chunkLines.get(i), savedItems.get(i).getId(), null));
+            }
+        } catch (DataAccessException e) {
+            chunkLines.forEach(line -> report.accept(new ItemImportResult(line, null,
+                    "Не удалось сохранить предмет: " + e.getMostSpecificCause().getMessage())));
+        } finally {
+            chunk.clear();
+            chunkLines.clear();
+        }
     }
 
     @Transactional
@@ -145,8 +293,4 @@ public class ItemServiceImpl implements ItemService {
         comment.setCreated(Instant.now());
         return comment;
     }
-
-    private LocalDateTime getLocalDateTimeOrNull(Instant instant) {
-        return instant == null ? null : instant.atZone(ZoneId.systemDefault()).toLocalDateTime();
-    }
 }
\ No newline at end of file
@@ -0,0 +1,40 @@
+package ru.practicum.shareit.item.summary;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Даты последнего и следующего подтвержденного бронирования предмета, посчитанные заранее.
+ * Значения верны до момента refreshAt: тогда следующее бронирование начинается или текущее заканчивается.
+ */
+@Entity
+@Table(name = "item_booking_summary")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ItemBookingSummary {
+    @Id
+    @Column(name = "item_id")
+    private Long itemId;
+
+    @Column(name = "last_booking_end")
+    private Instant lastBookingEnd;
+
+    @Column(name = "next_booking_start")
+    private Instant nextBookingStart;
+
+    @Column(name = "refresh_at")
+    private Instant refreshAt;
+
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+}
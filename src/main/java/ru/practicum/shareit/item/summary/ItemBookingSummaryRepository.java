@@ -0,0 +1,25 @@
+package ru.practicum.shareit.item.summary;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface ItemBookingSummaryRepository extends JpaRepository<ItemBookingSummary, Long> {
+
+    @Query("SELECT s.itemId FROM ItemBookingSummary s WHERE s.refreshAt <= ?1 ORDER BY s.refreshAt")
+    List<Long> findItemIdsToRefresh(Instant now, Limit limit);
+
+    /**
+     * Конец последнего завершившегося, начало следующего и ближайший конец еще не завершившегося
+     * подтвержденного бронирования предмета, за один проход по его бронированиям.
+     */
+    @Query("SELECT MAX(CASE WHEN b.end < ?2 THEN b.end END), " +
+            "MIN(CASE WHEN b.start > ?2 THEN b.start END), " +
+            "MIN(CASE WHEN b.end >= ?2 THEN b.end END) " +
+            "FROM Booking b " +
+            "WHERE b.item.id = ?1 AND b.status = ru.practicum.shareit.booking.BookingStatus.APPROVED")
+    List<Object[]> computeBookingDates(Long itemId, Instant now);
+}
@@ -0,0 +1,80 @@
+package ru.practicum.shareit.item.summary;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Поддерживает {@link ItemBookingSummary}: пересчитывает сводку в транзакции подтверждения бронирования
+ * и по расписанию, когда бронирования переходят из будущих в текущие и прошедшие.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemBookingSummaryUpdater {
+    private static final int SWEEP_BATCH_SIZE = 500;
+
+    private final ItemBookingSummaryRepository summaryRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Пересчитывает сводку предмета в текущей транзакции.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void refresh(Long itemId) {
+        Instant now = Instant.now();
+        Object[] dates = summaryRepository.computeBookingDates(itemId, now).get(0);
+        Instant lastBookingEnd = (Instant) dates[0];
+        Instant nextBookingStart = (Instant) dates[1];
+        Instant refreshAt = Stream.of(nextBookingStart, (Instant) dates[2])
+                .filter(Objects::nonNull)
+                .min(Instant::compareTo)
+                .orElse(null);
+        ItemBookingSummary summary = summaryRepository.findById(itemId)
+                .orElseGet(() -> new ItemBookingSummary(itemId, null, null, null, null));
+        summary.setLastBookingEnd(lastBookingEnd);
+        summary.setNextBookingStart(nextBookingStart);
+        summary.setRefreshAt(refreshAt);
+        summaryRepository.save(summary);
+    }
+
+    /**
+     * Сводка с наступившим refreshAt уже не используется при чтении (см. ItemRepository), поэтому
+     * запаздывание обхода влияет только на скорость выборок, но не на их результат. Если ни одну сводку
+     * пачки обновить не удалось, следующая выборка вернула бы ту же пачку, и обход откладывается
+     * до следующего запуска.
+     */
+    @Scheduled(fixedDelayString = "${shareit.booking-summary.sweep-delay}")
+    public void sweep() {
+        int refreshed = 0;
+        int batchRefreshed;
+        List<Long> itemIds;
+        do {
+            itemIds = summaryRepository.findItemIdsToRefresh(Instant.now(), Limit.of(SWEEP_BATCH_SIZE));
+            batchRefreshed = 0;
+            for (Long itemId : itemIds) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> refresh(itemId));
+                    batchRefreshed++;
+                } catch (OptimisticLockingFailureException e) {
+                    log.debug("Сводка предмета с id: {} изменена параллельно, пропускаем", itemId);
+                }
+            }
+            refreshed += batchRefreshed;
+        } while (itemIds.size() == SWEEP_BATCH_SIZE && batchRefreshed > 0);
+        if (refreshed > 0) {
+            log.info("Обновлены сводки бронирований {} предметов", refreshed);
+        }
+    }
+}
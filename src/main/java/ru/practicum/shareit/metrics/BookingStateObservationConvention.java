@@ -0,0 +1,35 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.BookingState;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Добавляет к http.server.requests тег state, чтобы время списков бронирований было видно
+ * отдельно для ALL, CURRENT, PAST и т.д. Неизвестные значения сводятся к INVALID,
+ * запросы без параметра получают none - число значений тега ограничено.
+ */
+@Component
+public class BookingStateObservationConvention extends DefaultServerRequestObservationConvention {
+    private static final String STATE_PARAMETER = "state";
+
+    @Override
+    public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+        return super.getLowCardinalityKeyValues(context)
+                .and(KeyValue.of(STATE_PARAMETER, state(context.getCarrier().getParameter(STATE_PARAMETER))));
+    }
+
+    private static String state(String value) {
+        if (value == null) {
+            return "none";
+        }
+        String state = value.toUpperCase(Locale.ROOT);
+        return Arrays.stream(BookingState.values()).anyMatch(known -> known.name().equals(state)) ? state : "INVALID";
+    }
+}
@@ -0,0 +1,80 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Число и суммарное время SQL-запросов на каждый HTTP-запрос: метрики shareit.sql.statements
+ * и shareit.sql.time по шаблону uri, предупреждение в журнале и счетчик shareit.sql.budget.exceeded,
+ * если запрос выполнил больше shareit.sql.statement-budget обращений к базе.
+ * Число обращений также кладется в атрибут запроса {@link #STATEMENTS_ATTRIBUTE}, чтобы тесты
+ * могли проверить бюджет конкретного эндпоинта.
+ */
+@Slf4j
+@Component
+public class SqlStatementBudgetFilter extends OncePerRequestFilter {
+    public static final String STATEMENTS_ATTRIBUTE = SqlStatementBudgetFilter.class.getName() + ".statements";
+
+    private final MeterRegistry meterRegistry;
+    private final int statementBudget;
+
+    public SqlStatementBudgetFilter(MeterRegistry meterRegistry,
+                                    @Value("${shareit.sql.statement-budget:10}") int statementBudget) {
+        this.meterRegistry = meterRegistry;
+        this.statementBudget = statementBudget;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SqlStatementCounter.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SqlStatementCounter.Usage usage = SqlStatementCounter.stop();
+            request.setAttribute(STATEMENTS_ATTRIBUTE, usage.getStatements());
+            record(request, usage);
+        }
+    }
+
+    private void record(HttpServletRequest request, SqlStatementCounter.Usage usage) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+        DistributionSummary.builder("shareit.sql.statements")
+                .description("Число обращений к базе на HTTP-запрос")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(usage.getStatements());
+        Timer.builder("shareit.sql.time")
+                .description("Суммарное время SQL на HTTP-запрос")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(Duration.ofMillis(usage.getElapsedMillis()));
+        if (usage.getStatements() > statementBudget) {
+            Counter.builder("shareit.sql.budget.exceeded")
+                    .description("HTTP-запросы, превысившие бюджет SQL-запросов")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .increment();
+            log.warn("{} {} выполнил {} SQL-запросов за {} мс при бюджете {}", request.getMethod(),
+                    request.getRequestURI(), usage.getStatements(), usage.getElapsedMillis(), statementBudget);
+        }
+    }
+}
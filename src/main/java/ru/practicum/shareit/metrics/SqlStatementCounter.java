@@ -0,0 +1,46 @@
+package ru.practicum.shareit.metrics;
+
+import lombok.Data;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.List;
+
+/**
+ * Считает обращения к базе в пределах текущего HTTP-запроса. Пакетное выполнение считается одним
+ * обращением: для поиска N+1 важно число сетевых round trip, а не число строк в пакете.
+ * Учет идет только между {@link #start()} и {@link #stop()}, вне запроса слушатель ничего не делает.
+ */
+public class SqlStatementCounter implements QueryExecutionListener {
+    private static final ThreadLocal<Usage> CURRENT = new ThreadLocal<>();
+
+    public static void start() {
+        CURRENT.set(new Usage());
+    }
+
+    public static Usage stop() {
+        Usage usage = CURRENT.get();
+        CURRENT.remove();
+        return usage == null ? new Usage() : usage;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Usage usage = CURRENT.get();
+        if (usage != null) {
+            usage.statements++;
+            usage.elapsedMillis += execInfo.getElapsedTime();
+        }
+    }
+
+    @Data
+    public static class Usage {
+        private int statements;
+        private long elapsedMillis;
+    }
+}
@@ -0,0 +1,56 @@
+package ru.practicum.shareit.ndjson;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Пишет объекты в ответ построчно в формате NDJSON по мере их поступления.
+ * Ответ открывается при первой записи, поэтому исключение, брошенное до нее,
+ * по-прежнему обрабатывается GlobalExceptionHandler как обычный JSON.
+ */
+public class NdjsonResponseWriter<T> implements Consumer<T>, Closeable {
+    public static final String MEDIA_TYPE = "application/x-ndjson";
+
+    private final ObjectMapper objectMapper;
+    private final Class<T> type;
+    private final HttpServletResponse response;
+    private SequenceWriter writer;
+
+    public NdjsonResponseWriter(ObjectMapper objectMapper, Class<T> type, HttpServletResponse response) {
+        this.objectMapper = objectMapper;
+        this.type = type;
+        this.response = response;
+    }
+
+    @Override
+    public void accept(T value) {
+        try {
+            open().write(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+        }
+    }
+
+    private SequenceWriter open() throws IOException {
+        if (writer == null) {
+            response.setContentType(MEDIA_TYPE);
+            writer = objectMapper.writerFor(type)
+                    .withRootValueSeparator("\n")
+                    .writeValues(response.getOutputStream());
+        }
+        return writer;
+    }
+}
@@ -0,0 +1,50 @@
+package ru.practicum.shareit.outbox;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Запись журнала {@link DatabaseOutboxSink}: событие outbox с присвоенной позицией.
+ */
+@Entity
+@Table(name = "change_log")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ChangeLogEntry {
+    @Id
+    @Column(name = "log_offset")
+    private Long offset;
+
+    @Column(name = "event_id", nullable = false)
+    private Long eventId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false)
+    private OutboxEvent.Type type;
+
+    @Column(name = "aggregate_id", nullable = false)
+    private Long aggregateId;
+
+    @Column(name = "payload", nullable = false)
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "appended_at", nullable = false)
+    private Instant appendedAt;
+
+    ChangeRecord toChangeRecord() {
+        return new ChangeRecord(offset, new OutboxMessage(eventId, type, aggregateId, payload, createdAt));
+    }
+}
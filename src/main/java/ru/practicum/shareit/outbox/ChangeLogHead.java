@@ -0,0 +1,28 @@
+package ru.practicum.shareit.outbox;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Единственная строка с последней выданной позицией журнала {@link DatabaseOutboxSink}.
+ */
+@Entity
+@Table(name = "change_log_head")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ChangeLogHead {
+    public static final int ID = 1;
+
+    @Id
+    @Column(name = "id")
+    private Integer id;
+
+    @Column(name = "last_offset", nullable = false)
+    private long lastOffset;
+}
@@ -0,0 +1,28 @@
+package ru.practicum.shareit.outbox;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface ChangeLogRepository extends JpaRepository<ChangeLogEntry, Long> {
+
+    @Query("SELECT e FROM ChangeLogEntry e WHERE e.offset > ?1 ORDER BY e.offset")
+    List<ChangeLogEntry> findAfter(long offset, Limit limit);
+
+    @Query("SELECT h FROM ChangeLogHead h WHERE h.id = " + ChangeLogHead.ID)
+    ChangeLogHead findHead();
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT h FROM ChangeLogHead h WHERE h.id = " + ChangeLogHead.ID)
+    ChangeLogHead lockHead();
+
+    @Modifying
+    @Query("DELETE FROM ChangeLogEntry e WHERE e.appendedAt < ?1")
+    int deleteAppendedBefore(Instant cutoff);
+}
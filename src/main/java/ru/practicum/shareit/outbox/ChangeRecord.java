@@ -0,0 +1,16 @@
+package ru.practicum.shareit.outbox;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Событие и его позиция в журнале {@link OutboxSink}. Позиции идут подряд с 1 в порядке записи в журнал.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ChangeRecord {
+    private long offset;
+    private OutboxMessage message;
+}
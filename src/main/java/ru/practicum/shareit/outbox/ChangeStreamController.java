@@ -0,0 +1,67 @@
+package ru.practicum.shareit.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.shareit.exception.ForbiddenException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+
+/**
+ * Журнал событий для внутренних потребителей. В событиях данные всех пользователей, поэтому эндпоинты
+ * включаются, только если задан ключ shareit.changes.consumer-key, и требуют его в заголовке X-Consumer-Key.
+ */
+@Slf4j
+@RestController
+@ConditionalOnProperty(name = "shareit.changes.consumer-key")
+@RequestMapping(path = "/changes")
+public class ChangeStreamController {
+    private static final String CONSUMER_KEY_HEADER = "X-Consumer-Key";
+
+    private final ChangeStreamService changeStreamService;
+    private final byte[] consumerKey;
+
+    public ChangeStreamController(ChangeStreamService changeStreamService,
+                                  @Value("${shareit.changes.consumer-key}") String consumerKey) {
+        if (consumerKey.isBlank()) {
+            throw new IllegalArgumentException("Ключ shareit.changes.consumer-key не может быть пустым");
+        }
+        this.changeStreamService = changeStreamService;
+        this.consumerKey = consumerKey.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @GetMapping
+    public List<ChangeRecord> read(@RequestHeader(name = CONSUMER_KEY_HEADER, required = false) String key,
+                                   @RequestParam String consumer,
+                                   @RequestParam(defaultValue = "100") int size) {
+        checkKey(key);
+        List<ChangeRecord> records = changeStreamService.read(consumer, size);
+        log.debug("Потребителю {} выдано {} событий", consumer, records.size());
+        return records;
+    }
+
+    @PutMapping("/offsets/{consumer}")
+    public long commit(@RequestHeader(name = CONSUMER_KEY_HEADER, required = false) String key,
+                       @PathVariable String consumer,
+                       @RequestParam long offset) {
+        checkKey(key);
+        long committed = changeStreamService.commit(consumer, offset);
+        log.info("Потребитель {} подтвердил позицию {}", consumer, committed);
+        return committed;
+    }
+
+    private void checkKey(String key) {
+        if (key == null || !MessageDigest.isEqual(consumerKey, key.getBytes(StandardCharsets.UTF_8))) {
+            throw new ForbiddenException("Неверный или отсутствующий заголовок " + CONSUMER_KEY_HEADER);
+        }
+    }
+}
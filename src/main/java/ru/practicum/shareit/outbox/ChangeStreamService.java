@@ -0,0 +1,52 @@
+package ru.practicum.shareit.outbox;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.exception.CustomValidationException;
+
+import java.util.List;
+
+/**
+ * Чтение журнала событий потребителями. Потребитель получает записи после своей подтвержденной позиции
+ * и подтверждает новую позицию, когда обработал их; до подтверждения те же записи выдаются повторно.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ChangeStreamService {
+    private static final int MAX_BATCH_SIZE = 1000;
+
+    private final OutboxSink sink;
+    private final ConsumerOffsetRepository consumerOffsetRepository;
+
+    public List<ChangeRecord> read(String consumer, int size) {
+        if (size < 1 || size > MAX_BATCH_SIZE) {
+            throw new CustomValidationException(String.format(
+                    "Параметр size должен быть в диапазоне от 1 до %d", MAX_BATCH_SIZE));
+        }
+        long offset = consumerOffsetRepository.findById(consumer)
+                .map(ConsumerOffset::getCommittedOffset)
+                .orElse(0L);
+        return sink.read(offset, size);
+    }
+
+    /**
+     * Позиция только растет: повторное или запоздавшее подтверждение меньшей позиции игнорируется.
+     * Возвращает подтвержденную позицию после вызова.
+     */
+    @Transactional
+    public long commit(String consumer, long offset) {
+        if (offset < 0 || offset > sink.lastOffset()) {
+            throw new CustomValidationException(String.format(
+                    "Позиция %d вне журнала событий, последняя позиция: %d", offset, sink.lastOffset()));
+        }
+        ConsumerOffset committed = consumerOffsetRepository.findById(consumer)
+                .orElseGet(() -> new ConsumerOffset(consumer, 0, null));
+        if (offset > committed.getCommittedOffset()) {
+            committed.setCommittedOffset(offset);
+            consumerOffsetRepository.save(committed);
+        }
+        return committed.getCommittedOffset();
+    }
+}
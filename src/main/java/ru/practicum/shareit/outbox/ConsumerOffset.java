@@ -0,0 +1,31 @@
+package ru.practicum.shareit.outbox;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Последняя позиция журнала, обработку которой подтвердил потребитель.
+ */
+@Entity
+@Table(name = "outbox_consumer_offsets")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ConsumerOffset {
+    @Id
+    @Column(name = "consumer")
+    private String consumer;
+
+    @Column(name = "committed_offset", nullable = false)
+    private long committedOffset;
+
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+}
@@ -0,0 +1,6 @@
+package ru.practicum.shareit.outbox;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ConsumerOffsetRepository extends JpaRepository<ConsumerOffset, String> {
+}
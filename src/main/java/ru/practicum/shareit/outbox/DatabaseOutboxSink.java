@@ -0,0 +1,81 @@
+package ru.practicum.shareit.outbox;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Журнал в таблице change_log той же базы - общий для всех экземпляров приложения. Ретранслятор блокирует
+ * строку change_log_head до выборки событий и держит блокировку до коммита, так что ретрансляторы работают
+ * по очереди, позиции выдаются подряд и фиксируются в порядке возрастания: потребитель не может пропустить
+ * запись, зафиксированную позже, чем он прочитал следующие. Записи старше shareit.outbox.retention удаляются; потребитель, отставший больше, увидит
+ * разрыв в позициях.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.outbox.sink", havingValue = "database")
+public class DatabaseOutboxSink implements OutboxSink {
+    private final ChangeLogRepository changeLogRepository;
+    private final EntityManager entityManager;
+    private final Duration retention;
+
+    public DatabaseOutboxSink(ChangeLogRepository changeLogRepository, EntityManager entityManager,
+                              @Value("${shareit.outbox.retention}") Duration retention) {
+        this.changeLogRepository = changeLogRepository;
+        this.entityManager = entityManager;
+        this.retention = retention;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void lock() {
+        changeLogRepository.lockHead();
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(List<OutboxMessage> messages) {
+        ChangeLogHead head = changeLogRepository.lockHead();
+        Instant now = Instant.now();
+        long offset = head.getLastOffset();
+        for (OutboxMessage message : messages) {
+            // позиция задана заранее, поэтому persist, а не save: save для сущности с id выполнил бы merge с выборкой
+            entityManager.persist(new ChangeLogEntry(++offset, message.getId(), message.getType(),
+                    message.getAggregateId(), message.getPayload(), message.getCreatedAt(), now));
+        }
+        head.setLastOffset(offset);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ChangeRecord> read(long offset, int limit) {
+        return changeLogRepository.findAfter(offset, Limit.of(limit)).stream()
+                .map(ChangeLogEntry::toChangeRecord)
+                .toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long lastOffset() {
+        return changeLogRepository.findHead().getLastOffset();
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.outbox.retention-sweep}")
+    @Transactional
+    public void trim() {
+        int deleted = changeLogRepository.deleteAppendedBefore(Instant.now().minus(retention));
+        if (deleted > 0) {
+            log.info("Из журнала событий удалено {} записей старше {}", deleted, retention);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package ru.practicum.shareit.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Журнал в локальном файле, по записи {@link ChangeRecord} в строке (NDJSON) - замена брокера для локального
+ * запуска одного экземпляра: файл виден только своему узлу. Позиция записи совпадает с номером строки;
+ * для каждой {@value #INDEX_INTERVAL}-й записи в памяти хранится ее смещение в байтах, так что чтение
+ * начинается с ближайшей такой записи, а не с начала файла. Пачка дописывается одним вызовом
+ * и сбрасывается на диск до возврата; недописанная при падении процесса строка отрезается при следующем запуске.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.outbox.sink", havingValue = "file")
+public class FileOutboxSink implements OutboxSink {
+    static final int INDEX_INTERVAL = 1024;
+
+    private final Path file;
+    private final ObjectMapper objectMapper;
+    /**
+     * positions.get(k) - смещение в байтах записи с позицией k * INDEX_INTERVAL + 1.
+     */
+    private final List<Long> positions = new ArrayList<>();
+    private long lastOffset;
+    private long size;
+
+    public FileOutboxSink(@Value("${shareit.outbox.file}") Path file, ObjectMapper objectMapper) {
+        this.file = file;
+        this.objectMapper = objectMapper;
+        try {
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось открыть журнал событий " + file, e);
+        }
+        log.info("Журнал событий {} открыт, последняя позиция: {}", file, lastOffset);
+    }
+
+    @Override
+    public synchronized void append(List<OutboxMessage> messages) {
+        ByteArrayOutputStream batch = new ByteArrayOutputStream();
+        List<Long> newPositions = new ArrayList<>();
+        long offset = lastOffset;
+        try {
+            for (OutboxMessage message : messages) {
+                if (offset % INDEX_INTERVAL == 0) {
+                    newPositions.add(size + batch.size());
+                }
+                batch.write(objectMapper.writeValueAsBytes(new ChangeRecord(++offset, message)));
+                batch.write('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось сериализовать события для журнала " + file, e);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(batch.toByteArray());
+                channel.position(size);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            } catch (IOException e) {
+                channel.truncate(size);
+                throw e;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось записать события в журнал " + file, e);
+        }
+        positions.addAll(newPositions);
+        lastOffset = offset;
+        size += batch.size();
+    }
+
+    @Override
+    public synchronized List<ChangeRecord> read(long offset, int limit) {
+        if (offset >= lastOffset) {
+            return List.of();
+        }
+        int checkpoint = (int) (offset / INDEX_INTERVAL);
+        long skip = offset - (long) checkpoint * INDEX_INTERVAL;
+        long count = Math.min(limit, lastOffset - offset);
+        List<ChangeRecord> records = new ArrayList<>((int) count);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             BufferedReader reader = new BufferedReader(new InputStreamReader(
+                     Channels.newInputStream(channel.position(positions.get(checkpoint))), StandardCharsets.UTF_8))) {
+            for (long i = 0; i < skip; i++) {
+                reader.readLine();
+            }
+            for (long i = 0; i < count; i++) {
+                records.add(objectMapper.readValue(reader.readLine(), ChangeRecord.class));
+            }
+            return records;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось прочитать журнал событий " + file, e);
+        }
+    }
+
+    @Override
+    public synchronized long lastOffset() {
+        return lastOffset;
+    }
+
+    /**
+     * Один проход по файлу: считает записи, строит индекс смещений и отрезает недописанный хвост.
+     */
+    private void recover() throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        if (!Files.exists(file)) {
+            Files.createFile(file);
+        }
+        long position = 0;
+        long lineStart = 0;
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            for (int b = in.read(); b != -1; b = in.read()) {
+                position++;
+                if (b == '\n') {
+                    if (lastOffset % INDEX_INTERVAL == 0) {
+                        positions.add(lineStart);
+                    }
+                    lastOffset++;
+                    lineStart = position;
+                }
+            }
+        }
+        if (lineStart < position) {
+            log.warn("В журнале событий {} отрезана недописанная запись ({} байт)", file, position - lineStart);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.truncate(lineStart);
+            }
+        }
+        size = lineStart;
+    }
+}
@@ -0,0 +1,43 @@
+package ru.practicum.shareit.outbox;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Журнал в памяти процесса, для тестов и локального запуска. Как и общий брокер, журнал один на все
+ * экземпляры приложения, поднятые в одном процессе: события попадают в него, какой бы экземпляр их
+ * ни перенес. Содержимое теряется при остановке.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.outbox.sink", havingValue = "in-memory")
+public class InMemoryOutboxSink implements OutboxSink {
+    private static final List<OutboxMessage> LOG = new ArrayList<>();
+
+    @Override
+    public void append(List<OutboxMessage> messages) {
+        synchronized (LOG) {
+            LOG.addAll(messages);
+        }
+    }
+
+    @Override
+    public List<ChangeRecord> read(long offset, int limit) {
+        List<ChangeRecord> records = new ArrayList<>();
+        synchronized (LOG) {
+            for (long position = offset + 1; position <= LOG.size() && records.size() < limit; position++) {
+                records.add(new ChangeRecord(position, LOG.get((int) position - 1)));
+            }
+        }
+        return records;
+    }
+
+    @Override
+    public long lastOffset() {
+        synchronized (LOG) {
+            return LOG.size();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package ru.practicum.shareit.outbox;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Событие, записанное в той же транзакции, что и само изменение, и ожидающее отправки в {@link OutboxSink}.
+ * Идентификаторы выдаются пачками, как и у остальных сущностей, поэтому на нескольких экземплярах приложения
+ * их порядок не совпадает с порядком записи. Порядок в журнале задают позиции, которые
+ * {@link DatabaseOutboxSink} выдает под блокировкой change_log_head.
+ */
+@Entity
+@Table(name = "outbox_events")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_events_seq")
+    @SequenceGenerator(name = "outbox_events_seq", sequenceName = "outbox_events_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false)
+    private Type type;
+
+    @Column(name = "aggregate_id", nullable = false)
+    private Long aggregateId;
+
+    @Column(name = "payload", nullable = false)
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    public enum Type {
+        /**
+         * Бронирование создано, подтверждено или отклонено, aggregateId - id бронирования.
+         */
+        BOOKING_CHANGED,
+        /**
+         * Добавлен отзыв, aggregateId - id предмета.
+         */
+        COMMENT_ADDED
+    }
+}
@@ -0,0 +1,42 @@
+package ru.practicum.shareit.outbox;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.IOException;
+import java.time.Instant;
+
+/**
+ * Событие в том виде, в каком его получают потребители: payload вложен как JSON-объект.
+ * Доставка - "хотя бы один раз", поэтому повторы потребитель отсеивает по id.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OutboxMessage {
+    private Long id;
+    private OutboxEvent.Type type;
+    private Long aggregateId;
+    @JsonRawValue
+    @JsonDeserialize(using = RawJsonDeserializer.class)
+    private String payload;
+    private Instant createdAt;
+
+    public static OutboxMessage of(OutboxEvent event) {
+        return new OutboxMessage(event.getId(), event.getType(), event.getAggregateId(), event.getPayload(),
+                event.getCreatedAt());
+    }
+
+    static class RawJsonDeserializer extends JsonDeserializer<String> {
+        @Override
+        public String deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            return parser.readValueAsTree().toString();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package ru.practicum.shareit.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Переносит события из outbox в {@link OutboxSink} пачками. Пачка удаляется из outbox в той же транзакции,
+ * в которой была выбрана, и только после успешной записи в журнал; если транзакция после записи
+ * не зафиксировалась, пачка будет отправлена повторно. Журнал database ({@link DatabaseOutboxSink})
+ * блокируется до выборки, поэтому ретрансляторы экземпляров работают по очереди и порядок событий
+ * сохраняется; file и in-memory рассчитаны на один экземпляр.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+    private static final int BATCH_SIZE = 500;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxSink sink;
+    private final TransactionTemplate transactionTemplate;
+    private final Timer lag;
+    private final Counter relayed;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository, OutboxSink sink,
+                       TransactionTemplate transactionTemplate, MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.sink = sink;
+        this.transactionTemplate = transactionTemplate;
+        this.lag = Timer.builder("shareit.outbox.lag")
+                .description("Время от записи события в outbox до его попадания в журнал")
+                .register(meterRegistry);
+        this.relayed = Counter.builder("shareit.outbox.relayed")
+                .description("События, перенесенные из outbox в журнал")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.outbox.relay-delay}")
+    public void relay() {
+        int count;
+        try {
+            do {
+                Integer batch = transactionTemplate.execute(status -> relayBatch());
+                count = batch == null ? 0 : batch;
+            } while (count == BATCH_SIZE);
+        } catch (RuntimeException e) {
+            log.warn("Не удалось перенести события в журнал, повтор через интервал ретрансляции", e);
+        }
+    }
+
+    private int relayBatch() {
+        sink.lock();
+        List<OutboxEvent> events = outboxEventRepository.findOldestForRelay(Limit.of(BATCH_SIZE));
+        if (events.isEmpty()) {
+            return 0;
+        }
+        sink.append(events.stream().map(OutboxMessage::of).toList());
+        outboxEventRepository.deleteAllInBatch(events);
+        Instant now = Instant.now();
+        events.forEach(event -> lag.record(Duration.between(event.getCreatedAt(), now)));
+        relayed.increment(events.size());
+        log.debug("Перенесено в журнал событий: {}", events.size());
+        return events.size();
+    }
+}
@@ -0,0 +1,32 @@
+package ru.practicum.shareit.outbox;
+
+import java.util.List;
+
+/**
+ * Журнал событий, в который {@link OutboxRelay} переносит записи outbox и из которого их читают потребители.
+ */
+public interface OutboxSink {
+    /**
+     * Вызывается в транзакции ретранслятора до выборки событий из outbox. Журнал в той же базе блокируется
+     * до конца транзакции, чтобы ретрансляторы разных экземпляров переносили события по очереди.
+     */
+    default void lock() {
+    }
+
+    /**
+     * Дописывает пачку в конец журнала в транзакции ретранслятора. Возврат без исключения означает, что пачка
+     * сохранена (для журнала в той же базе - будет сохранена вместе с транзакцией): после этого события
+     * удаляются из outbox.
+     */
+    void append(List<OutboxMessage> messages);
+
+    /**
+     * До limit записей с позициями больше offset, по возрастанию позиций.
+     */
+    List<ChangeRecord> read(long offset, int limit);
+
+    /**
+     * Позиция последней записи, 0 для пустого журнала.
+     */
+    long lastOffset();
+}
@@ -0,0 +1,41 @@
+package ru.practicum.shareit.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.BookingChangedEvent;
+import ru.practicum.shareit.item.comment.CommentAddedEvent;
+
+import java.time.Instant;
+
+/**
+ * Записывает события в outbox. Слушатели синхронные, а не {@code @TransactionalEventListener}: запись
+ * попадает в транзакцию, опубликовавшую событие, и откатывается вместе с ней.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxWriter {
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    @EventListener
+    public void onBookingChanged(BookingChangedEvent event) {
+        save(OutboxEvent.Type.BOOKING_CHANGED, event.getBooking().getId(), event);
+    }
+
+    @EventListener
+    public void onCommentAdded(CommentAddedEvent event) {
+        save(OutboxEvent.Type.COMMENT_ADDED, event.getItemId(), event);
+    }
+
+    private void save(OutboxEvent.Type type, Long aggregateId, Object payload) {
+        try {
+            outboxEventRepository.save(new OutboxEvent(null, type, aggregateId,
+                    objectMapper.writeValueAsString(payload), Instant.now()));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сериализовать " + payload, e);
+        }
+    }
+}
@@ -1,11 +1,15 @@
 package ru.practicum.shareit.user.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserChangedEvent;
+import ru.practicum.shareit.user.UserDeletedEvent;
 import ru.practicum.shareit.user.UserDto;
 import ru.practicum.shareit.user.UserMapper;
 import ru.practicum.shareit.user.UserRepository;
@@ -15,28 +19,36 @@ import ru.practicum.shareit.user.UserRepository;
 @Transactional
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public UserDto createUser(UserDto userDto) {
-        validateUserEmail(userDto);
+        if (userRepository.existsByEmailIgnoreCase(userDto.getEmail())) {
+            throw emailConflict(userDto.getEmail());
+        }
         User user = UserMapper.toUser(userDto);
-        return UserMapper.toUserDto(userRepository.save(user));
+        return UserMapper.toUserDto(saveOrThrowConflict(user));
     }
 
     @Override
     public UserDto updateUser(Long id, UserDto userDto) {
-        validateUserEmail(userDto);
+        if (userDto.getEmail() != null && userRepository.existsByEmailIgnoreCaseAndIdNot(userDto.getEmail(), id)) {
+            throw emailConflict(userDto.getEmail());
+        }
         UserDto user = getUser(id);
         User updatedUser = new User();
         updatedUser.setId(id);
         updatedUser.setName(userDto.getName() != null ? userDto.getName() : user.getName());
         updatedUser.setEmail(userDto.getEmail() != null ? userDto.getEmail() : user.getEmail());
-        return UserMapper.toUserDto(userRepository.save(updatedUser));
+        User savedUser = saveOrThrowConflict(updatedUser);
+        eventPublisher.publishEvent(new UserChangedEvent(id));
+        return UserMapper.toUserDto(savedUser);
     }
 
     @Override
     public void deleteUser(Long id) {
         userRepository.deleteById(id);
+        eventPublisher.publishEvent(new UserDeletedEvent(id));
     }
 
     @Override
@@ -46,9 +58,15 @@ public class UserServiceImpl implements UserService {
                 () -> new NotFoundException(String.format("Пользователь с id %d не найден", userId))));
     }
 
-    private void validateUserEmail(UserDto userDto) {
-        if (userRepository.findAll().stream().anyMatch(u -> u.getEmail().equals(userDto.getEmail()))) {
-            throw new ConflictException(String.format("Пользователь с email %s уже существует", userDto.getEmail()));
+    private User saveOrThrowConflict(User user) {
+        try {
+            return userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            throw emailConflict(user.getEmail());
         }
     }
+
+    private static ConflictException emailConflict(String email) {
+        return new ConflictException(String.format("Пользователь с email %s уже существует", email));
+    }
 }
\ No newline at end of file
@@ -1,31 +1,40 @@
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS items_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS bookings_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS comments_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS outbox_events_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS users (
-    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    id BIGINT PRIMARY KEY,
     name VARCHAR(255) NOT NULL,
     email VARCHAR(512) NOT NULL UNIQUE
 );
 
 CREATE TABLE IF NOT EXISTS items (
-    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    id BIGINT PRIMARY KEY,
     name VARCHAR(255) NOT NULL,
     description TEXT,
     available BOOLEAN NOT NULL,
+    disabled_by_booking BOOLEAN NOT NULL DEFAULT FALSE,
     owner_id BIGINT NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0,
     FOREIGN KEY (owner_id) REFERENCES users(id) ON DELETE CASCADE
 );
 
 CREATE TABLE IF NOT EXISTS bookings (
-    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    id BIGINT PRIMARY KEY,
     item_id BIGINT NOT NULL,
     booker_id BIGINT NOT NULL,
     start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
     end_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
     status VARCHAR(50) NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0,
     FOREIGN KEY (item_id) REFERENCES items(id) ON DELETE CASCADE,
     FOREIGN KEY (booker_id) REFERENCES users(id) ON DELETE CASCADE
 );
 
 CREATE TABLE IF NOT EXISTS comments (
-    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    id BIGINT PRIMARY KEY,
     item_id BIGINT NOT NULL,
     author_id BIGINT NOT NULL,
     text TEXT NOT NULL,
@@ -34,9 +43,122 @@ CREATE TABLE IF NOT EXISTS comments (
     FOREIGN KEY (author_id) REFERENCES users(id) ON DELETE CASCADE
 );
 
+CREATE TABLE IF NOT EXISTS item_booking_summary (
+    item_id BIGINT PRIMARY KEY,
+    last_booking_end TIMESTAMP WITHOUT TIME ZONE,
+    next_booking_start TIMESTAMP WITHOUT TIME ZONE,
+    refresh_at TIMESTAMP WITHOUT TIME ZONE,
+    version BIGINT NOT NULL DEFAULT 0,
+    FOREIGN KEY (item_id) REFERENCES items(id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id BIGINT PRIMARY KEY,
+    type VARCHAR(50) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP WITHOUT TIME ZONE NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS change_log (
+    log_offset BIGINT PRIMARY KEY,
+    event_id BIGINT NOT NULL,
+    type VARCHAR(50) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    appended_at TIMESTAMP WITHOUT TIME ZONE NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS change_log_head (
+    id INT PRIMARY KEY,
+    last_offset BIGINT NOT NULL
+);
+
+INSERT INTO change_log_head (id, last_offset) SELECT 1, 0 WHERE NOT EXISTS (SELECT 1 FROM change_log_head);
+
+CREATE TABLE IF NOT EXISTS outbox_consumer_offsets (
+    consumer VARCHAR(100) PRIMARY KEY,
+    committed_offset BIGINT NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0
+);
+
+-- Databases created before the switch to sequences: drop the old IDENTITY defaults and move each sequence past
+-- the existing ids. Hibernate's pooled optimizer treats a sequence value as the top of a block of 50 ids, hence
+-- MAX(id) + 50. The sequence only moves forward, and only while it is behind the table, so re-running is harmless.
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE items ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE bookings ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE comments ALTER COLUMN id DROP IDENTITY IF EXISTS;
+SELECT setval('users_seq', MAX(t.id) + 50, false) FROM users t, users_seq s GROUP BY s.last_value, s.is_called
+    HAVING MAX(t.id) > s.last_value OR (MAX(t.id) = s.last_value AND NOT s.is_called);
+SELECT setval('items_seq', MAX(t.id) + 50, false) FROM items t, items_seq s GROUP BY s.last_value, s.is_called
+    HAVING MAX(t.id) > s.last_value OR (MAX(t.id) = s.last_value AND NOT s.is_called);
+SELECT setval('bookings_seq', MAX(t.id) + 50, false) FROM bookings t, bookings_seq s GROUP BY s.last_value, s.is_called
+    HAVING MAX(t.id) > s.last_value OR (MAX(t.id) = s.last_value AND NOT s.is_called);
+SELECT setval('comments_seq', MAX(t.id) + 50, false) FROM comments t, comments_seq s GROUP BY s.last_value, s.is_called
+    HAVING MAX(t.id) > s.last_value OR (MAX(t.id) = s.last_value AND NOT s.is_called);
+
+-- outbox_events_seq used to advance by 1. With step 50 the next value is at least the old one + 50, so the first
+-- pooled block starts right after the ids already issued.
+ALTER SEQUENCE outbox_events_seq INCREMENT BY 50;
+
+ALTER TABLE items ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+-- Items made unavailable by an approval are released when the booking ends; items the owner disabled are not.
+-- Databases created before the flag existed cannot tell the two apart, so when the column is added, unavailable
+-- items that have an approved booking are taken as disabled by it. This runs once, together with the column.
+DO '
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name = ''items'' AND column_name = ''disabled_by_booking'') THEN
+        RETURN;
+    END IF;
+    ALTER TABLE items ADD COLUMN disabled_by_booking BOOLEAN NOT NULL DEFAULT FALSE;
+    UPDATE items i SET disabled_by_booking = TRUE
+    WHERE NOT i.available AND EXISTS (SELECT 1 FROM bookings b WHERE b.item_id = i.id AND b.status = ''APPROVED'');
+END';
+
+-- No two APPROVED bookings of one item may overlap. The constraint is added here rather than in CREATE TABLE so
+-- that existing databases get it too. If such overlaps are already stored, the constraint cannot be created:
+-- a warning is logged and the next start retries once they are resolved. The body is a single-quoted string
+-- because the script runner splits statements on semicolons outside quotes.
+DO '
+BEGIN
+    CREATE EXTENSION IF NOT EXISTS btree_gist;
+    IF EXISTS (SELECT 1 FROM pg_constraint WHERE conname = ''ex_bookings_item_approved_period'') THEN
+        RETURN;
+    END IF;
+    IF EXISTS (SELECT 1 FROM bookings a JOIN bookings b ON a.item_id = b.item_id AND a.id < b.id
+               WHERE a.status = ''APPROVED'' AND b.status = ''APPROVED''
+                 AND tsrange(a.start_date, a.end_date) && tsrange(b.start_date, b.end_date)) THEN
+        RAISE WARNING ''ex_bookings_item_approved_period not created: overlapping APPROVED bookings exist'';
+        RETURN;
+    END IF;
+    ALTER TABLE bookings ADD CONSTRAINT ex_bookings_item_approved_period EXCLUDE USING gist (
+        item_id WITH =,
+        tsrange(start_date, end_date) WITH &&
+    ) WHERE (status = ''APPROVED'');
+END';
+
+-- Databases created before emails became case-insensitive may hold addresses that differ only in case, and the
+-- unique index below would fail on them. The oldest account keeps the address; later ones get it prefixed with
+-- their id so that nothing is lost and the owners can be contacted. Once the index exists this updates nothing.
+UPDATE users u SET email = 'duplicate-' || u.id || '-' || u.email
+    WHERE EXISTS (SELECT 1 FROM users o WHERE UPPER(o.email) = UPPER(u.email) AND o.id < u.id);
+CREATE UNIQUE INDEX IF NOT EXISTS ux_users_email_upper ON users(UPPER(email));
 CREATE INDEX IF NOT EXISTS idx_items_owner_id ON items(owner_id);
-CREATE INDEX IF NOT EXISTS idx_bookings_booker_id ON bookings(booker_id);
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_start_id ON bookings(booker_id, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_status_start_id ON bookings(booker_id, status, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_end ON bookings(booker_id, end_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_start_id ON bookings(item_id, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_end ON bookings(item_id, end_date);
 CREATE INDEX IF NOT EXISTS idx_bookings_item_status_start ON bookings(item_id, status, start_date);
 CREATE INDEX IF NOT EXISTS idx_bookings_item_status_end ON bookings(item_id, status, end_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_status_start ON bookings(status, start_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_status_end ON bookings(status, end_date);
 CREATE INDEX IF NOT EXISTS idx_comments_author_id ON comments(author_id);
-CREATE INDEX IF NOT EXISTS idx_comments_item_id ON comments(item_id);
\ No newline at end of file
+CREATE INDEX IF NOT EXISTS idx_comments_item_id ON comments(item_id);
+CREATE INDEX IF NOT EXISTS idx_item_booking_summary_refresh_at ON item_booking_summary(refresh_at);
+CREATE INDEX IF NOT EXISTS idx_change_log_appended_at ON change_log(appended_at);
\ No newline at end of file
@@ -0,0 +1,65 @@
+package ru.practicum.shareit.benchmark;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+/**
+ * Пропускная способность вставки предметов без пакетной отправки (по одному INSERT на строку,
+ * как было при GenerationType.IDENTITY) и с пакетами JDBC по hibernate.jdbc.batch_size.
+ * Запуск: mvn -Pbenchmark test -Dtest=BatchInsertBenchmark.
+ * Для замера на Postgres передайте -Dspring.profiles.active= и параметры spring.datasource.*.
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest
+class BatchInsertBenchmark {
+    private static final int WARMUP_ROWS = 5_000;
+    private static final int MEASURED_ROWS = 20_000;
+    private static final int FLUSH_EVERY = 1_000;
+    private static final int BATCH_SIZE = 50;
+
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void insertThroughput() {
+        User owner = userRepository.save(new User(null, "benchmark", "batch-insert-benchmark@mail.ru"));
+        insertItems(owner, 1, WARMUP_ROWS);
+        insertItems(owner, BATCH_SIZE, WARMUP_ROWS);
+
+        double unbatched = insertItems(owner, 1, MEASURED_ROWS);
+        double batched = insertItems(owner, BATCH_SIZE, MEASURED_ROWS);
+
+        log.info("Вставка {} предметов: без пакетов {} строк/с, пакетами по {} - {} строк/с (x{})",
+                MEASURED_ROWS, Math.round(unbatched), BATCH_SIZE, Math.round(batched),
+                String.format("%.1f", batched / unbatched));
+    }
+
+    private double insertItems(User owner, int jdbcBatchSize, int rows) {
+        long startedAt = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(jdbcBatchSize);
+            for (int i = 0; i < rows; i++) {
+                entityManager.persist(new Item(null, "item " + i, "description " + i, true, owner));
+                if ((i + 1) % FLUSH_EVERY == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+        });
+        return rows / ((System.nanoTime() - startedAt) / 1e9);
+    }
+}
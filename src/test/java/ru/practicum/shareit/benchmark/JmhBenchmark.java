@@ -0,0 +1,37 @@
+package ru.practicum.shareit.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Запускает JMH-бенчмарки из пакета benchmark.jmh с профилировщиком GC, чтобы вместе с пропускной
+ * способностью видеть скорость аллокаций (gc.alloc.rate.norm - байт на операцию).
+ * Результаты сохраняются в target/jmh-result.json для сравнения между версиями.
+ * Запуск: mvn -Pbenchmark test -Dtest=JmhBenchmark [-Djmh.include=MapperJmh.groupCommentsByItem].
+ */
+@Tag("benchmark")
+class JmhBenchmark {
+
+    @Test
+    void runJmh() throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(System.getProperty("jmh.include", "ru\\.practicum\\.shareit\\.benchmark\\.jmh\\."))
+                .forks(1)
+                .warmupIterations(3)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(1))
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result("target/jmh-result.json")
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,61 @@
+package ru.practicum.shareit.benchmark;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.benchmark.load.LoadDriver;
+import ru.practicum.shareit.benchmark.load.LoadMixes;
+import ru.practicum.shareit.benchmark.load.LoadReport;
+import ru.practicum.shareit.benchmark.load.LoadRequest;
+import ru.practicum.shareit.benchmark.load.LoadTestApp;
+import ru.practicum.shareit.benchmark.load.LoadTestData;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Нагрузочный прогон контроллеров смесями search-heavy, booking-heavy и owner-dashboard с возрастающей
+ * частотой запросов, чтобы найти точку насыщения: пропускная способность отстает от заданной частоты,
+ * а p99 и p99.9 резко увеличиваются. Для каждого уровня печатается таблица по эндпоинтам, полные
+ * распределения задержек сохраняются в target/load-test/*.hgrm.
+ * Запуск: mvn -Pbenchmark test -Dtest=LoadTestBenchmark
+ * [-Dload.mixes=search-heavy,owner-dashboard] [-Dload.rates=500,2000,8000] [-Dload.seconds=15]
+ * [-Dload.warmupSeconds=5]. Для прогона на Postgres передайте -Dspring.datasource.url/username/password.
+ */
+@Slf4j
+@Tag("benchmark")
+class LoadTestBenchmark {
+    private static final List<String> MIXES = List.of(
+            System.getProperty("load.mixes", "search-heavy,booking-heavy,owner-dashboard").split(","));
+    private static final int[] RATES = Arrays.stream(System.getProperty("load.rates", "500,2000,8000")
+            .split(",")).mapToInt(value -> Integer.parseInt(value.trim())).toArray();
+    private static final Duration WARMUP = Duration.ofSeconds(Long.getLong("load.warmupSeconds", 5));
+    private static final Duration MEASUREMENT = Duration.ofSeconds(Long.getLong("load.seconds", 15));
+    private static final Path REPORT_DIRECTORY = Path.of("target", "load-test");
+
+    private final LoadDriver driver = new LoadDriver();
+
+    @Test
+    void controllerMixes() throws Exception {
+        try (ConfigurableApplicationContext context = LoadTestApp.start()) {
+            LoadTestData data = LoadTestData.seed(context, 50, 20, 200, 20);
+            Map<String, List<LoadRequest>> mixes = LoadMixes.all(LoadTestApp.baseUrl(context), data);
+            for (String mixName : MIXES) {
+                List<LoadRequest> mix = mixes.get(mixName.trim());
+                if (mix == null) {
+                    throw new IllegalArgumentException("Неизвестная смесь: " + mixName + ", доступны " + mixes.keySet());
+                }
+                driver.run(mix, RATES[0], WARMUP);
+                for (int rate : RATES) {
+                    LoadReport report = driver.run(mix, rate, MEASUREMENT);
+                    report.writeHistograms(REPORT_DIRECTORY, mixName.trim());
+                    log.info("Смесь {}:\n{}", mixName.trim(), report.format());
+                }
+            }
+        }
+    }
+}
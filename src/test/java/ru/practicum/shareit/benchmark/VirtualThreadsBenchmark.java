@@ -0,0 +1,67 @@
+package ru.practicum.shareit.benchmark;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.benchmark.load.LoadDriver;
+import ru.practicum.shareit.benchmark.load.LoadMixes;
+import ru.practicum.shareit.benchmark.load.LoadReport;
+import ru.practicum.shareit.benchmark.load.LoadRequest;
+import ru.practicum.shareit.benchmark.load.LoadTestApp;
+import ru.practicum.shareit.benchmark.load.LoadTestData;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Пропускная способность и p99 для /items, /bookings и /items/search при высокой постоянной частоте
+ * запросов, когда число одновременно обрабатываемых запросов превышает пул потоков Tomcat: приложение
+ * поднимается дважды, на потоках платформы Tomcat и на виртуальных потоках
+ * (spring.threads.virtual.enabled), с одинаковым размером пула соединений.
+ * Запуск: mvn -Pbenchmark test -Dtest=VirtualThreadsBenchmark [-Dbenchmark.rate=5000]
+ * [-Dbenchmark.seconds=10]. Для поиска закреплений виртуальных потоков добавьте -Djdk.tracePinnedThreads=short.
+ */
+@Slf4j
+@Tag("benchmark")
+class VirtualThreadsBenchmark {
+    private static final int RATE = Integer.getInteger("benchmark.rate", 5000);
+    private static final Duration WARMUP = Duration.ofSeconds(Long.getLong("benchmark.warmupSeconds", 3));
+    private static final Duration MEASUREMENT = Duration.ofSeconds(Long.getLong("benchmark.seconds", 10));
+    private static final int POOL_SIZE = 20;
+
+    private final LoadDriver driver = new LoadDriver();
+
+    @Test
+    void platformVersusVirtualThreads() {
+        List<String> report = new ArrayList<>();
+        for (boolean virtual : new boolean[]{false, true}) {
+            try (ConfigurableApplicationContext context = LoadTestApp.start(
+                    "spring.threads.virtual.enabled=" + virtual,
+                    "spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE,
+                    "spring.datasource.hikari.minimum-idle=" + POOL_SIZE)) {
+                String baseUrl = LoadTestApp.baseUrl(context);
+                LoadTestData data = LoadTestData.seed(context, 1, 200, 1, 100);
+                Long ownerId = data.getOwnerIds().get(0);
+                Long bookerId = data.getBookerIds().get(0);
+                List<LoadRequest> endpoints = List.of(
+                        new LoadRequest("/items", 1, () -> LoadMixes.get(baseUrl, "/items", ownerId)),
+                        new LoadRequest("/bookings", 1, () -> LoadMixes.get(baseUrl, "/bookings", bookerId)),
+                        new LoadRequest("/items/search?text=drill", 1,
+                                () -> LoadMixes.get(baseUrl, "/items/search?text=drill", bookerId)));
+                for (LoadRequest endpoint : endpoints) {
+                    driver.run(List.of(endpoint), RATE, WARMUP);
+                    LoadReport result = driver.run(List.of(endpoint), RATE, MEASUREMENT);
+                    String name = endpoint.getName();
+                    report.add(String.format("%-8s %-26s %8.0f req/s  p50 %6.1f ms  p99 %7.1f ms  ошибок %d",
+                            virtual ? "virtual" : "platform", name, result.throughput(name),
+                            result.percentileMillis(name, 50), result.percentileMillis(name, 99),
+                            result.errors(name)));
+                }
+            }
+        }
+        log.info("{} запросов в секунду, пул соединений {}:\n{}", RATE, POOL_SIZE,
+                String.join("\n", report));
+    }
+}
@@ -0,0 +1,98 @@
+package ru.practicum.shareit.benchmark.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.comment.CommentDto;
+import ru.practicum.shareit.item.comment.CommentMapper;
+import ru.practicum.shareit.item.comment.CommentView;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.dto.ItemWithDatesDto;
+import ru.practicum.shareit.item.dto.ItemWithDatesView;
+import ru.practicum.shareit.user.User;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Маппинг сущностей и проекций в DTO и группировка комментариев по предметам,
+ * которые выполняются на каждый ответ /items и /bookings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MapperJmh {
+    @Param({"200"})
+    private int items;
+
+    @Param({"5"})
+    private int commentsPerItem;
+
+    private Item item;
+    private Booking booking;
+    private ItemWithDatesView itemView;
+    private CommentView commentView;
+    private List<CommentView> commentViews;
+    private List<CommentDto> itemComments;
+
+    @Setup
+    public void setUp() {
+        Instant now = Instant.now();
+        User owner = new User(1L, "owner", "owner@mail.ru");
+        User booker = new User(2L, "booker", "booker@mail.ru");
+        item = new Item(1L, "Дрель", "Ударная дрель с набором сверл", true, owner);
+        booking = new Booking(1L, booker, item, now, now.plus(Duration.ofDays(1)), BookingStatus.APPROVED);
+        itemView = new ItemWithDatesView(1L, owner.getId(), item.getName(), item.getDescription(), true,
+                now.minus(Duration.ofDays(1)), now.plus(Duration.ofDays(1)));
+        commentView = new CommentView(1L, 1L, "Отличная дрель", booker.getName(), now);
+
+        commentViews = new ArrayList<>(items * commentsPerItem);
+        for (long itemId = 1; itemId <= items; itemId++) {
+            for (int i = 0; i < commentsPerItem; i++) {
+                commentViews.add(new CommentView(itemId, (long) commentViews.size() + 1, "Комментарий " + i,
+                        booker.getName(), now));
+            }
+        }
+        itemComments = CommentMapper.toCommentDtosByItemId(commentViews.subList(0, commentsPerItem)).get(1L);
+    }
+
+    @Benchmark
+    public ItemDto itemToDto() {
+        return ItemMapper.toItemDto(item);
+    }
+
+    @Benchmark
+    public ItemWithDatesDto itemViewToDto() {
+        return ItemMapper.toItemWithDatesDto(itemView, itemComments);
+    }
+
+    @Benchmark
+    public BookingDto bookingToDto() {
+        return BookingMapper.toBookingDto(booking);
+    }
+
+    @Benchmark
+    public CommentDto commentViewToDto() {
+        return CommentMapper.toCommentDto(commentView);
+    }
+
+    @Benchmark
+    public Map<Long, List<CommentDto>> groupCommentsByItem() {
+        return CommentMapper.toCommentDtosByItemId(commentViews);
+    }
+}
@@ -0,0 +1,94 @@
+package ru.practicum.shareit.benchmark.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.comment.Comment;
+import ru.practicum.shareit.item.comment.CommentRepository;
+import ru.practicum.shareit.item.dto.ItemWithDatesDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ItemServiceImpl.getItemsByOwner целиком: проекция с датами бронирований, комментарии и маппинг,
+ * на встроенной H2 с заранее заполненными данными.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OwnerItemsJmh {
+    @Param({"50"})
+    private int items;
+
+    private ConfigurableApplicationContext context;
+    private ItemService itemService;
+    private Long ownerId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItApp.class)
+                .profiles("test")
+                .web(WebApplicationType.NONE)
+                .run("--logging.level.root=WARN",
+                        "--logging.level.org.springframework.transaction.interceptor=WARN",
+                        "--logging.level.org.springframework.orm.jpa.JpaTransactionManager=WARN");
+        itemService = context.getBean(ItemService.class);
+
+        User owner = context.getBean(UserRepository.class).save(new User(null, "owner", "owner@jmh.ru"));
+        User booker = context.getBean(UserRepository.class).save(new User(null, "booker", "booker@jmh.ru"));
+        List<Item> savedItems = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            savedItems.add(new Item(null, "item " + i, "description " + i, true, owner));
+        }
+        savedItems = context.getBean(ItemRepository.class).saveAll(savedItems);
+
+        Instant now = Instant.now();
+        List<Booking> bookings = new ArrayList<>();
+        List<Comment> comments = new ArrayList<>();
+        for (Item item : savedItems) {
+            bookings.add(new Booking(null, booker, item, now.minus(Duration.ofDays(2)), now.minus(Duration.ofDays(1)),
+                    BookingStatus.APPROVED));
+            bookings.add(new Booking(null, booker, item, now.plus(Duration.ofDays(1)), now.plus(Duration.ofDays(2)),
+                    BookingStatus.APPROVED));
+            for (int i = 0; i < 3; i++) {
+                comments.add(new Comment(null, "comment " + i, item, booker, now));
+            }
+        }
+        context.getBean(BookingRepository.class).saveAll(bookings);
+        context.getBean(CommentRepository.class).saveAll(comments);
+        ownerId = owner.getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ItemWithDatesDto> getItemsByOwner() {
+        return itemService.getItemsByOwner(ownerId);
+    }
+}
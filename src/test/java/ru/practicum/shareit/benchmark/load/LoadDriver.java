@@ -0,0 +1,96 @@
+package ru.practicum.shareit.benchmark.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Нагрузка разомкнутого цикла: запросы отправляются с постоянной частотой rate в секунду, каждый на своем
+ * виртуальном потоке, независимо от того, ответил ли сервер на предыдущие. Вид запроса выбирается из смеси
+ * пропорционально весам. Задержка отсчитывается от запланированного момента отправки, а не от фактического,
+ * поэтому ожидание, которое насыщенный сервер (или отставший генератор) создает для следующих запросов,
+ * попадает в перцентили, а не теряется (coordinated omission). Задержки пишутся в HdrHistogram
+ * в микросекундах, отдельно для каждого вида запроса.
+ */
+public class LoadDriver {
+    private static final long MAX_LATENCY_MICROS = Duration.ofMinutes(1).toNanos() / 1_000;
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    public LoadReport run(List<LoadRequest> mix, int rate, Duration duration) {
+        Map<String, Histogram> latencies = new LinkedHashMap<>();
+        Map<String, AtomicLong> errors = new LinkedHashMap<>();
+        int[] cumulativeWeights = new int[mix.size()];
+        int totalWeight = 0;
+        for (int i = 0; i < mix.size(); i++) {
+            LoadRequest request = mix.get(i);
+            latencies.put(request.getName(), new ConcurrentHistogram(MAX_LATENCY_MICROS, SIGNIFICANT_DIGITS));
+            errors.put(request.getName(), new AtomicLong());
+            totalWeight += request.getWeight();
+            cumulativeWeights[i] = totalWeight;
+        }
+
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long requests = duration.toNanos() / intervalNanos;
+        long startedAt = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; i < requests; i++) {
+                long intendedAt = startedAt + i * intervalNanos;
+                for (long wait = intendedAt - System.nanoTime(); wait > 0; wait = intendedAt - System.nanoTime()) {
+                    LockSupport.parkNanos(wait);
+                }
+                LoadRequest request = pick(mix, cumulativeWeights, totalWeight);
+                executor.execute(() -> {
+                    if (send(request.getRequest().get())) {
+                        long micros = (System.nanoTime() - intendedAt) / 1_000;
+                        latencies.get(request.getName()).recordValue(Math.min(micros, MAX_LATENCY_MICROS));
+                    } else {
+                        errors.get(request.getName()).incrementAndGet();
+                    }
+                });
+            }
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - startedAt);
+        return new LoadReport(rate, elapsed, latencies, errors);
+    }
+
+    private boolean send(HttpRequest request) {
+        try {
+            int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            return status >= 200 && status < 300;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static LoadRequest pick(List<LoadRequest> mix, int[] cumulativeWeights, int weightSum) {
+        int value = ThreadLocalRandom.current().nextInt(weightSum);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (value < cumulativeWeights[i]) {
+                return mix.get(i);
+            }
+        }
+        return mix.get(mix.size() - 1);
+    }
+}
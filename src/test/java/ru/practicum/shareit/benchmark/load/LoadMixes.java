@@ -0,0 +1,98 @@
+package ru.practicum.shareit.benchmark.load;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Смеси запросов к ItemController, BookingController и UserController, приближенные к реальным сценариям.
+ * Веса задают долю каждого вида запроса в общем потоке.
+ */
+public final class LoadMixes {
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+    private static final List<String> BOOKER_STATES = List.of("ALL", "CURRENT", "PAST", "FUTURE");
+    private static final List<String> OWNER_STATES = List.of("ALL", "WAITING", "FUTURE");
+
+    private LoadMixes() {
+    }
+
+    public static Map<String, List<LoadRequest>> all(String baseUrl, LoadTestData data) {
+        return Map.of(
+                "search-heavy", searchHeavy(baseUrl, data),
+                "booking-heavy", bookingHeavy(baseUrl, data),
+                "owner-dashboard", ownerDashboard(baseUrl, data));
+    }
+
+    /**
+     * Каталог: в основном поиск, карточки предметов и профили пользователей.
+     */
+    public static List<LoadRequest> searchHeavy(String baseUrl, LoadTestData data) {
+        return List.of(
+                new LoadRequest("GET /items/search", 70, () -> get(baseUrl, "/items/search?size=20&text="
+                        + random(LoadTestData.SEARCH_WORDS), random(data.getBookerIds()))),
+                new LoadRequest("GET /items/{id}", 20, () -> get(baseUrl, "/items/" + random(data.getItemIds()),
+                        random(data.getBookerIds()))),
+                new LoadRequest("GET /users/{id}", 10, () -> get(baseUrl, "/users/" + random(data.getBookerIds()),
+                        null)));
+    }
+
+    /**
+     * Арендаторы: создание бронирований и просмотр своих списков, владельцы проверяют входящие.
+     */
+    public static List<LoadRequest> bookingHeavy(String baseUrl, LoadTestData data) {
+        AtomicLong slots = new AtomicLong();
+        LocalDateTime firstSlot = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        return List.of(
+                new LoadRequest("POST /bookings", 20, () -> {
+                    LocalDateTime start = firstSlot.plus(Duration.ofHours(2 * slots.getAndIncrement()));
+                    String body = String.format("{\"itemId\":%d,\"start\":\"%s\",\"end\":\"%s\"}",
+                            random(data.getItemIds()), start, start.plusHours(1));
+                    return HttpRequest.newBuilder(URI.create(baseUrl + "/bookings"))
+                            .header(USER_HEADER, random(data.getBookerIds()).toString())
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(body))
+                            .build();
+                }),
+                new LoadRequest("GET /bookings", 35, () -> get(baseUrl, "/bookings?limit=20&state="
+                        + random(BOOKER_STATES), random(data.getBookerIds()))),
+                new LoadRequest("GET /bookings/{id}", 25, () -> {
+                    int index = ThreadLocalRandom.current().nextInt(data.getBookingIds().size());
+                    return get(baseUrl, "/bookings/" + data.getBookingIds().get(index),
+                            data.getBookingBookerIds().get(index));
+                }),
+                new LoadRequest("GET /bookings/owner", 20, () -> get(baseUrl, "/bookings/owner?limit=20&state="
+                        + random(OWNER_STATES), random(data.getOwnerIds()))));
+    }
+
+    /**
+     * Кабинет владельца: список предметов с датами бронирований, входящие бронирования, карточки предметов.
+     */
+    public static List<LoadRequest> ownerDashboard(String baseUrl, LoadTestData data) {
+        return List.of(
+                new LoadRequest("GET /items", 40, () -> get(baseUrl, "/items", random(data.getOwnerIds()))),
+                new LoadRequest("GET /bookings/owner", 30, () -> get(baseUrl, "/bookings/owner?limit=20&state="
+                        + random(OWNER_STATES), random(data.getOwnerIds()))),
+                new LoadRequest("GET /items/{id}", 20, () -> get(baseUrl, "/items/" + random(data.getItemIds()),
+                        random(data.getOwnerIds()))),
+                new LoadRequest("GET /users/{id}", 10, () -> get(baseUrl, "/users/" + random(data.getOwnerIds()),
+                        null)));
+    }
+
+    public static HttpRequest get(String baseUrl, String path, Long userId) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path)).GET();
+        if (userId != null) {
+            request.header(USER_HEADER, userId.toString());
+        }
+        return request.build();
+    }
+
+    private static <T> T random(List<T> values) {
+        return values.get(ThreadLocalRandom.current().nextInt(values.size()));
+    }
+}
@@ -0,0 +1,81 @@
+package ru.practicum.shareit.benchmark.load;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Результат одного прогона {@link LoadDriver}: гистограммы задержек и число ошибок по видам запросов.
+ * Если пропускная способность заметно ниже заданной частоты rate, сервер насыщен.
+ */
+@Data
+@AllArgsConstructor
+public class LoadReport {
+    private static final double MICROS_PER_MILLI = 1_000.0;
+
+    private int rate;
+    private Duration elapsed;
+    private Map<String, Histogram> latencies;
+    private Map<String, AtomicLong> errors;
+
+    public double throughput(String name) {
+        return latencies.get(name).getTotalCount() / seconds();
+    }
+
+    public double totalThroughput() {
+        return latencies.values().stream().mapToLong(Histogram::getTotalCount).sum() / seconds();
+    }
+
+    public double percentileMillis(String name, double percentile) {
+        return latencies.get(name).getValueAtPercentile(percentile) / MICROS_PER_MILLI;
+    }
+
+    public long errors(String name) {
+        return errors.get(name).get();
+    }
+
+    /**
+     * Таблица по видам запросов: пропускная способность, p50/p99/p99.9, максимум и ошибки.
+     */
+    public String format() {
+        StringBuilder report = new StringBuilder(String.format("%-28s %10s %9s %9s %9s %9s %8s%n",
+                "rate " + rate + " req/s", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "errors"));
+        for (String name : latencies.keySet()) {
+            Histogram histogram = latencies.get(name);
+            report.append(String.format("%-28s %10.1f %9.2f %9.2f %9.2f %9.2f %8d%n", name, throughput(name),
+                    percentileMillis(name, 50), percentileMillis(name, 99), percentileMillis(name, 99.9),
+                    histogram.getMaxValue() / MICROS_PER_MILLI, errors(name)));
+        }
+        report.append(String.format("%-28s %10.1f%n", "total", totalThroughput()));
+        return report.toString();
+    }
+
+    /**
+     * Сохраняет полное распределение задержек каждого вида запроса в формате .hgrm,
+     * который открывается HdrHistogram plotter'ом.
+     */
+    public void writeHistograms(Path directory, String prefix) throws IOException {
+        Files.createDirectories(directory);
+        for (Map.Entry<String, Histogram> entry : latencies.entrySet()) {
+            String fileName = String.format("%s-r%d-%s.hgrm", prefix, rate,
+                    entry.getKey().replaceAll("[^A-Za-z0-9]+", "_"));
+            try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(fileName)), false,
+                    StandardCharsets.UTF_8)) {
+                entry.getValue().outputPercentileDistribution(out, MICROS_PER_MILLI);
+            }
+        }
+    }
+
+    private double seconds() {
+        return elapsed.toNanos() / 1e9;
+    }
+}
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.benchmark.load;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.net.http.HttpRequest;
+import java.util.function.Supplier;
+
+/**
+ * Один вид запроса в нагрузочной смеси: имя для отчета, относительный вес и генератор запросов.
+ * Генератор вызывается на каждый запрос, поэтому может подставлять случайных пользователей и параметры.
+ */
+@Data
+@AllArgsConstructor
+public class LoadRequest {
+    private String name;
+    private int weight;
+    private Supplier<HttpRequest> request;
+}
@@ -0,0 +1,44 @@
+package ru.practicum.shareit.benchmark.load;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.ShareItApp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Запуск приложения для нагрузочных прогонов: профиль test, случайный порт, отдельная in-memory база
+ * на каждый запуск и журнал без записей на каждый запрос. Параметры spring.datasource.*, переданные
+ * системными свойствами, имеют приоритет, так что тот же прогон можно направить на Postgres.
+ */
+public final class LoadTestApp {
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+
+    private LoadTestApp() {
+    }
+
+    public static ConfigurableApplicationContext start(String... properties) {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--logging.level.root=WARN",
+                "--logging.level.ru.practicum.shareit.benchmark=INFO",
+                "--logging.level.org.springframework.transaction.interceptor=WARN",
+                "--logging.level.org.springframework.orm.jpa.JpaTransactionManager=WARN"));
+        if (System.getProperty("spring.datasource.url") == null) {
+            args.add("--spring.datasource.url=jdbc:h2:mem:load-test-" + DATABASES.incrementAndGet());
+        }
+        for (String property : properties) {
+            args.add("--" + property);
+        }
+        return new SpringApplicationBuilder(ShareItApp.class)
+                .profiles("test")
+                .run(args.toArray(String[]::new));
+    }
+
+    public static String baseUrl(ConfigurableApplicationContext context) {
+        return "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+}
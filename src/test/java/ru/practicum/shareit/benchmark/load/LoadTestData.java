@@ -0,0 +1,108 @@
+package ru.practicum.shareit.benchmark.load;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.comment.Comment;
+import ru.practicum.shareit.item.comment.CommentRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Набор данных для нагрузочных прогонов: владельцы с предметами, арендаторы с бронированиями
+ * в прошлом, настоящем и будущем, комментарии. Данные пишутся напрямую через репозитории,
+ * после чего поисковый индекс перестраивается.
+ */
+@Data
+@AllArgsConstructor
+public class LoadTestData {
+    public static final List<String> SEARCH_WORDS = List.of("drill", "saw", "ladder", "tent", "bike", "camera");
+
+    private List<Long> ownerIds;
+    private List<Long> bookerIds;
+    private List<Long> itemIds;
+    private List<Long> bookingIds;
+    private List<Long> bookingBookerIds;
+
+    public static LoadTestData seed(ConfigurableApplicationContext context, int owners, int itemsPerOwner,
+                                    int bookers, int bookingsPerBooker) {
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        ItemRepository itemRepository = context.getBean(ItemRepository.class);
+        BookingRepository bookingRepository = context.getBean(BookingRepository.class);
+        CommentRepository commentRepository = context.getBean(CommentRepository.class);
+        Random random = new Random(42);
+
+        List<User> users = new ArrayList<>(owners + bookers);
+        for (int i = 0; i < owners; i++) {
+            users.add(new User(null, "owner " + i, "owner" + i + "@load.ru"));
+        }
+        for (int i = 0; i < bookers; i++) {
+            users.add(new User(null, "booker " + i, "booker" + i + "@load.ru"));
+        }
+        users = userRepository.saveAll(users);
+        List<User> ownerUsers = users.subList(0, owners);
+        List<User> bookerUsers = users.subList(owners, users.size());
+
+        List<Item> items = new ArrayList<>(owners * itemsPerOwner);
+        for (User owner : ownerUsers) {
+            for (int i = 0; i < itemsPerOwner; i++) {
+                String word = SEARCH_WORDS.get(random.nextInt(SEARCH_WORDS.size()));
+                items.add(new Item(null, word + " " + items.size(), "rental " + word + " in good condition",
+                        true, owner));
+            }
+        }
+        Instant now = Instant.now();
+        Instant first = now.minus(Duration.ofDays(30));
+        // подтвержденные бронирования одного предмета не должны пересекаться (ex_bookings_item_approved_period),
+        // поэтому каждое следующее начинается после конца предыдущего
+        Map<Item, Instant> approvedUntil = new IdentityHashMap<>();
+        List<Booking> bookings = new ArrayList<>(bookers * bookingsPerBooker);
+        List<Comment> comments = new ArrayList<>();
+        for (User booker : bookerUsers) {
+            for (int i = 0; i < bookingsPerBooker; i++) {
+                Item item = items.get(random.nextInt(items.size()));
+                BookingStatus status = random.nextInt(4) == 0 ? BookingStatus.WAITING : BookingStatus.APPROVED;
+                Instant start;
+                if (status == BookingStatus.APPROVED) {
+                    start = approvedUntil.getOrDefault(item, first).plus(Duration.ofHours(random.nextInt(48)));
+                    approvedUntil.put(item, start.plus(Duration.ofHours(4)));
+                } else {
+                    start = now.plus(Duration.ofHours(random.nextInt(24 * 60) - 24 * 30));
+                }
+                Instant end = start.plus(Duration.ofHours(4));
+                bookings.add(new Booking(null, booker, item, start, end, status));
+                if (status == BookingStatus.APPROVED && !start.isAfter(now) && end.isAfter(now)) {
+                    item.setAvailable(false);
+                }
+                if (status == BookingStatus.APPROVED && start.isBefore(now) && random.nextBoolean()) {
+                    comments.add(new Comment(null, "nice " + item.getName(), item, booker, now));
+                }
+            }
+        }
+        items = itemRepository.saveAll(items);
+        bookings = bookingRepository.saveAll(bookings);
+        commentRepository.saveAll(comments);
+        context.getBean(ItemSearchIndex.class).rebuild();
+
+        return new LoadTestData(
+                ownerUsers.stream().map(User::getId).toList(),
+                bookerUsers.stream().map(User::getId).toList(),
+                items.stream().map(Item::getId).toList(),
+                bookings.stream().map(Booking::getId).toList(),
+                bookings.stream().map(booking -> booking.getBooker().getId()).toList());
+    }
+}
@@ -0,0 +1,88 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.CustomValidationException;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Решение по бронированию принимается условным UPDATE только для WAITING; при отказе причина
+ * выясняется отдельным чтением, и сообщение соответствует тому, какое условие не выполнено.
+ */
+@SpringBootTest
+class BookingApprovalTest {
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Test
+    void secondDecisionIsRejectedAndFirstOneStands() {
+        UserDto owner = userService.createUser(new UserDto(null, "owner", "approval-owner@mail.ru"));
+        UserDto booker = userService.createUser(new UserDto(null, "booker", "approval-booker@mail.ru"));
+        ItemDto item = itemService.addItem(owner.getId(), new ItemDto(null, "Мангал", "Складной", true, null));
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Long bookingId = bookingService.createBooking(booker.getId(),
+                new BookingRequestDto(item.getId(), start, start.plusDays(1))).getId();
+
+        assertEquals(BookingStatus.REJECTED, bookingService.approveBooking(owner.getId(), bookingId, false).getStatus());
+
+        IllegalStateException approveAfterReject = assertThrows(IllegalStateException.class,
+                () -> bookingService.approveBooking(owner.getId(), bookingId, true));
+        assertEquals("Бронирование уже обработано", approveAfterReject.getMessage());
+        IllegalStateException rejectAgain = assertThrows(IllegalStateException.class,
+                () -> bookingService.approveBooking(owner.getId(), bookingId, false));
+        assertEquals("Бронирование уже обработано", rejectAgain.getMessage());
+        assertEquals(BookingStatus.REJECTED, bookingRepository.findById(bookingId).orElseThrow().getStatus());
+        assertTrue(itemRepository.findById(item.getId()).orElseThrow().getAvailable());
+    }
+
+    @Test
+    void failedGuardReportsWhichConditionFailed() {
+        User owner = userRepository.save(new User(null, "owner", "approval-guard-owner@mail.ru"));
+        User booker = userRepository.save(new User(null, "booker", "approval-guard-booker@mail.ru"));
+        Item item = itemRepository.save(new Item(null, "Гамак", "С креплениями", true, owner));
+        Instant now = Instant.now();
+        Long started = bookingRepository.save(new Booking(null, booker, item, now.minus(1, ChronoUnit.HOURS),
+                now.plus(1, ChronoUnit.DAYS), BookingStatus.WAITING)).getId();
+        Long future = bookingRepository.save(new Booking(null, booker, item, now.plus(1, ChronoUnit.DAYS),
+                now.plus(2, ChronoUnit.DAYS), BookingStatus.WAITING)).getId();
+
+        assertEquals("Нельзя подтвердить бронирование, которое уже началось", assertThrows(
+                CustomValidationException.class,
+                () -> bookingService.approveBooking(owner.getId(), started, true)).getMessage());
+        assertEquals("Пользователь не является владельцем предмета", assertThrows(
+                CustomValidationException.class,
+                () -> bookingService.approveBooking(booker.getId(), future, true)).getMessage());
+        assertEquals("Пользователь не найден", assertThrows(
+                CustomValidationException.class,
+                () -> bookingService.approveBooking(Long.MAX_VALUE, future, true)).getMessage());
+        assertEquals(BookingStatus.WAITING, bookingRepository.findById(future).orElseThrow().getStatus());
+    }
+}
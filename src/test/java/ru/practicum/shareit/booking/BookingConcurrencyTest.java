@@ -0,0 +1,125 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.exception.CustomValidationException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Много потоков бронируют и подтверждают один и тот же предмет на одни и те же даты:
+ * подтверждено должно быть ровно одно бронирование, остальные получают обычный отказ.
+ */
+@SpringBootTest
+class BookingConcurrencyTest {
+    private static final int THREADS = 8;
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Test
+    void concurrentApprovalsOfOverlappingBookingsApproveExactlyOne() throws Exception {
+        UserDto owner = userService.createUser(new UserDto(null, "owner", "concurrency-owner@mail.ru"));
+        ItemDto item = itemService.addItem(owner.getId(), new ItemDto(null, "Палатка", "Трехместная палатка", true, null));
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+        List<Callable<BookingDto>> requests = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            UserDto booker = userService.createUser(new UserDto(null, "booker", "concurrency-booker" + i + "@mail.ru"));
+            BookingRequestDto request = new BookingRequestDto(item.getId(), start.plusHours(i % 2), start.plusDays(1));
+            requests.add(() -> bookingService.createBooking(booker.getId(), request));
+        }
+        List<Long> bookingIds = new ArrayList<>();
+        for (Future<BookingDto> created : runConcurrently(requests)) {
+            bookingIds.add(created.get().getId());
+        }
+
+        List<Callable<BookingDto>> approvals = bookingIds.stream()
+                .<Callable<BookingDto>>map(id -> () -> bookingService.approveBooking(owner.getId(), id, true))
+                .toList();
+        int approved = 0;
+        for (Future<BookingDto> approval : runConcurrently(approvals)) {
+            try {
+                assertEquals(BookingStatus.APPROVED, approval.get().getStatus());
+                approved++;
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof CustomValidationException || e.getCause() instanceof ConflictException,
+                        () -> "Неожиданная ошибка: " + e.getCause());
+            }
+        }
+
+        assertEquals(1, approved);
+        assertEquals(1, bookingRepository.findAllById(bookingIds).stream()
+                .filter(booking -> booking.getStatus() == BookingStatus.APPROVED)
+                .count());
+    }
+
+    @Test
+    void bookingOverlappingApprovedPeriodIsRejected() {
+        UserDto owner = userService.createUser(new UserDto(null, "owner", "overlap-owner@mail.ru"));
+        UserDto booker = userService.createUser(new UserDto(null, "booker", "overlap-booker@mail.ru"));
+        ItemDto item = itemService.addItem(owner.getId(), new ItemDto(null, "Байдарка", "Двухместная байдарка", true, null));
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        BookingDto booking = bookingService.createBooking(booker.getId(),
+                new BookingRequestDto(item.getId(), start, start.plusDays(2)));
+        bookingService.approveBooking(owner.getId(), booking.getId(), true);
+        itemService.updateItem(owner.getId(), item.getId(), new ItemDto(null, null, null, true, null));
+
+        assertThrows(ConflictException.class, () -> bookingService.createBooking(booker.getId(),
+                new BookingRequestDto(item.getId(), start.plusDays(1), start.plusDays(3))));
+        bookingService.createBooking(booker.getId(),
+                new BookingRequestDto(item.getId(), start.plusDays(2), start.plusDays(3)));
+    }
+
+    private static <T> List<Future<T>> runConcurrently(List<Callable<T>> tasks) throws InterruptedException {
+        CountDownLatch ready = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+        try {
+            List<Future<T>> futures = tasks.stream()
+                    .map(task -> executor.submit(() -> {
+                        ready.await();
+                        return task.call();
+                    }))
+                    .toList();
+            ready.countDown();
+            for (Future<T> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException ignored) {
+                    // результат разбирает вызывающий
+                }
+            }
+            return futures;
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
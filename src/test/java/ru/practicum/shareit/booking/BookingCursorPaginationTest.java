@@ -0,0 +1,112 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Обход списка бронирований страницами по X-Next-Cursor: бронирования с одинаковым началом
+ * различаются по id, поэтому обход не теряет и не повторяет записи.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BookingCursorPaginationTest {
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private User booker;
+    private List<Long> expectedIds;
+
+    @BeforeAll
+    void setUp() {
+        User owner = userRepository.save(new User(null, "owner", "cursor-owner@mail.ru"));
+        booker = userRepository.save(new User(null, "booker", "cursor-booker@mail.ru"));
+        Item item = itemRepository.save(new Item(null, "Фонарь", "Налобный фонарь", true, owner));
+        Instant start = Instant.now().plus(1, ChronoUnit.DAYS).truncatedTo(ChronoUnit.SECONDS);
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            // по два бронирования на одно и то же начало
+            Instant bookingStart = start.plus(i / 2, ChronoUnit.DAYS);
+            bookings.add(bookingRepository.save(new Booking(null, booker, item, bookingStart,
+                    bookingStart.plus(1, ChronoUnit.HOURS), BookingStatus.WAITING)));
+        }
+        expectedIds = bookings.stream()
+                .sorted(Comparator.comparing(Booking::getStart).thenComparing(Booking::getId).reversed())
+                .map(Booking::getId)
+                .toList();
+    }
+
+    @Test
+    void walkingNextCursorReturnsEveryBookingOnceInOrder() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            MvcResult result = mockMvc.perform(get("/bookings")
+                            .header("X-Sharer-User-Id", booker.getId())
+                            .param("limit", "2")
+                            .param("cursor", cursor == null ? "" : cursor))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            JsonNode page = objectMapper.readTree(result.getResponse().getContentAsString());
+            assertTrue(page.size() <= 2);
+            page.forEach(booking -> ids.add(booking.get("id").asLong()));
+            cursor = result.getResponse().getHeader(NEXT_CURSOR_HEADER);
+            pages++;
+        } while (cursor != null && pages < 10);
+
+        assertEquals(expectedIds, ids);
+        assertEquals(4, pages);
+    }
+
+    @Test
+    void tamperedCursorIsRejected() throws Exception {
+        for (String raw : List.of("1:0", "1:0:5:extra", "1:0:5:", "99999999999999999:0:5", "a:b:c")) {
+            String cursor = Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+            mockMvc.perform(get("/bookings")
+                            .header("X-Sharer-User-Id", booker.getId())
+                            .param("cursor", cursor))
+                    .andExpect(status().isBadRequest());
+        }
+        mockMvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", booker.getId())
+                        .param("cursor", "не base64"))
+                .andExpect(status().isBadRequest());
+    }
+}
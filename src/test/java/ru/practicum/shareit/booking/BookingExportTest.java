@@ -0,0 +1,76 @@
+package ru.practicum.shareit.booking;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.EntityKey;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Выгрузка отдает все бронирования владельца по убыванию начала, а контекст персистентности
+ * очищается каждые 500 строк, так что в нем не накапливаются уже выгруженные бронирования.
+ */
+@SpringBootTest
+class BookingExportTest {
+    private static final int BOOKINGS = 1201;
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void exportsEveryBookingAndClearsContextEvery500Rows() {
+        User owner = userRepository.save(new User(null, "owner", "export-owner@mail.ru"));
+        User booker = userRepository.save(new User(null, "booker", "export-booker@mail.ru"));
+        Item item = itemRepository.save(new Item(null, "Проектор", "Для презентаций", true, owner));
+        Instant start = Instant.now().plus(1, ChronoUnit.DAYS).truncatedTo(ChronoUnit.SECONDS);
+        List<Booking> bookings = new ArrayList<>(BOOKINGS);
+        for (int i = 0; i < BOOKINGS; i++) {
+            Instant bookingStart = start.plus(i, ChronoUnit.HOURS);
+            bookings.add(new Booking(null, booker, item, bookingStart, bookingStart.plus(30, ChronoUnit.MINUTES),
+                    BookingStatus.WAITING));
+        }
+        List<Long> expectedIds = new ArrayList<>(bookingRepository.saveAll(bookings).stream()
+                .map(Booking::getId)
+                .toList());
+        Collections.reverse(expectedIds);
+
+        List<Long> exportedIds = new ArrayList<>(BOOKINGS);
+        List<Long> managedBookings = new ArrayList<>(BOOKINGS);
+        bookingService.exportBookingsByItemOwnerId(owner.getId(), (BookingDto booking) -> {
+            exportedIds.add(booking.getId());
+            managedBookings.add(entityManager.unwrap(Session.class).getStatistics().getEntityKeys().stream()
+                    .map(EntityKey.class::cast)
+                    .filter(key -> Booking.class.getName().equals(key.getEntityName()))
+                    .count());
+        });
+
+        assertEquals(expectedIds, exportedIds);
+        for (int row = 1; row <= BOOKINGS; row++) {
+            long sinceClear = (row - 1) % 500 + 1;
+            assertEquals(sinceClear, managedBookings.get(row - 1), "строка " + row);
+        }
+    }
+}
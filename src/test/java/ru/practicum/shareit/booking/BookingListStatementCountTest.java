@@ -0,0 +1,72 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.metrics.SqlStatementBudgetFilter;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BookingListStatementCountTest {
+    private static final int BOOKINGS = 6;
+    // одна выборка страницы с booker и item; проверка пользователя обслуживается кэшем второго уровня
+    private static final int STATEMENTS = 1;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private User owner;
+    private User booker;
+
+    @BeforeAll
+    void setUp() {
+        owner = userRepository.save(new User(null, "owner", "statement-count-owner@mail.ru"));
+        booker = userRepository.save(new User(null, "booker", "statement-count-booker@mail.ru"));
+        Instant start = Instant.now().plus(1, ChronoUnit.DAYS);
+        for (int i = 0; i < BOOKINGS; i++) {
+            Item item = itemRepository.save(new Item(null, "item " + i, "description " + i, true, owner));
+            Instant bookingStart = start.plus(i, ChronoUnit.DAYS);
+            bookingRepository.save(new Booking(null, booker, item, bookingStart, bookingStart.plus(1, ChronoUnit.HOURS),
+                    BookingStatus.WAITING));
+        }
+    }
+
+    @Test
+    void bookerListIssuesConstantNumberOfStatements() throws Exception {
+        mockMvc.perform(get("/bookings").header("X-Sharer-User-Id", booker.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(BOOKINGS))
+                .andExpect(request().attribute(SqlStatementBudgetFilter.STATEMENTS_ATTRIBUTE, STATEMENTS));
+    }
+
+    @Test
+    void ownerListIssuesConstantNumberOfStatements() throws Exception {
+        mockMvc.perform(get("/bookings/owner").header("X-Sharer-User-Id", owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(BOOKINGS))
+                .andExpect(request().attribute(SqlStatementBudgetFilter.STATEMENTS_ATTRIBUTE, STATEMENTS));
+    }
+}
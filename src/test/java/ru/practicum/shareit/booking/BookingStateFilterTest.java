@@ -0,0 +1,97 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Каждое состояние в списках арендатора и владельца возвращает ровно свои бронирования:
+ * CURRENT, PAST и FUTURE определяются датами относительно текущего момента, WAITING и REJECTED - статусом.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BookingStateFilterTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private User owner;
+    private User booker;
+    private Map<String, List<Long>> expected;
+
+    @BeforeAll
+    void setUp() {
+        owner = userRepository.save(new User(null, "owner", "state-owner@mail.ru"));
+        booker = userRepository.save(new User(null, "booker", "state-booker@mail.ru"));
+        Item item = itemRepository.save(new Item(null, "Палатка", "Двухместная палатка", true, owner));
+        Instant now = Instant.now();
+        Long past = save(item, now.minus(3, ChronoUnit.DAYS), now.minus(2, ChronoUnit.DAYS), BookingStatus.APPROVED);
+        Long current = save(item, now.minus(1, ChronoUnit.DAYS), now.plus(1, ChronoUnit.DAYS), BookingStatus.APPROVED);
+        Long waiting = save(item, now.plus(2, ChronoUnit.DAYS), now.plus(3, ChronoUnit.DAYS), BookingStatus.WAITING);
+        Long rejected = save(item, now.plus(4, ChronoUnit.DAYS), now.plus(5, ChronoUnit.DAYS), BookingStatus.REJECTED);
+        expected = Map.of(
+                "ALL", List.of(rejected, waiting, current, past),
+                "CURRENT", List.of(current),
+                "PAST", List.of(past),
+                "FUTURE", List.of(rejected, waiting),
+                "WAITING", List.of(waiting),
+                "REJECTED", List.of(rejected));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED"})
+    void bookerListReturnsExactlyBookingsInState(String state) throws Exception {
+        assertEquals(expected.get(state), ids("/bookings", booker, state));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED"})
+    void ownerListReturnsExactlyBookingsInState(String state) throws Exception {
+        assertEquals(expected.get(state), ids("/bookings/owner", owner, state));
+    }
+
+    private Long save(Item item, Instant start, Instant end, BookingStatus status) {
+        return bookingRepository.save(new Booking(null, booker, item, start, end, status)).getId();
+    }
+
+    private List<Long> ids(String path, User user, String state) throws Exception {
+        String body = mockMvc.perform(get(path)
+                        .header("X-Sharer-User-Id", user.getId())
+                        .param("state", state))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode bookings = objectMapper.readTree(body);
+        return StreamSupport.stream(bookings.spliterator(), false)
+                .map(booking -> booking.get("id").asLong())
+                .toList();
+    }
+}
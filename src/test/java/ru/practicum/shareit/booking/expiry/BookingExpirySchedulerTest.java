@@ -0,0 +1,127 @@
+package ru.practicum.shareit.booking.expiry;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Пачки планировщика перепроверяют условие в базе: отклоняется только начавшееся неподтвержденное
+ * бронирование, освобождается только предмет, отключенный подтверждением, без идущих и будущих
+ * подтвержденных бронирований.
+ */
+@SpringBootTest
+class BookingExpirySchedulerTest {
+    @Autowired
+    private BookingExpiryScheduler scheduler;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemService itemService;
+
+    @Test
+    void rejectsOnlyStartedWaitingBookings() {
+        User owner = userRepository.save(new User(null, "owner", "expiry-reject-owner@mail.ru"));
+        User booker = userRepository.save(new User(null, "booker", "expiry-reject-booker@mail.ru"));
+        Item item = itemRepository.save(new Item(null, "Лодка", "Надувная лодка", true, owner));
+        Instant now = Instant.now();
+        Booking started = save(booker, item, now.minus(Duration.ofMinutes(1)), BookingStatus.WAITING);
+        Booking upcoming = save(booker, item, now.plus(Duration.ofDays(1)), BookingStatus.WAITING);
+
+        assertEquals(1, scheduler.rejectStarted(List.of(started.getId(), upcoming.getId()), now));
+        assertEquals(0, scheduler.rejectStarted(List.of(started.getId()), now));
+
+        assertEquals(BookingStatus.REJECTED, status(started));
+        assertEquals(BookingStatus.WAITING, status(upcoming));
+    }
+
+    @Test
+    void releasesOnlyItemsWithoutRemainingApprovedBookings() {
+        User owner = userRepository.save(new User(null, "owner", "expiry-release-owner@mail.ru"));
+        User booker = userRepository.save(new User(null, "booker", "expiry-release-booker@mail.ru"));
+        Item finished = itemRepository.save(
+                disabledByBooking(new Item(null, "Велосипед", "Горный велосипед", false, owner)));
+        Item rented = itemRepository.save(disabledByBooking(new Item(null, "Самокат", "Электросамокат", false, owner)));
+        Instant now = Instant.now();
+        save(booker, finished, now.minus(Duration.ofHours(3)), BookingStatus.APPROVED);
+        save(booker, rented, now.minus(Duration.ofHours(1)), BookingStatus.APPROVED);
+
+        assertEquals(1, scheduler.releaseItems(List.of(finished.getId(), rented.getId()), now));
+        assertEquals(0, scheduler.releaseItems(List.of(finished.getId()), now));
+
+        assertTrue(itemRepository.findById(finished.getId()).orElseThrow().getAvailable());
+        assertFalse(itemRepository.findById(rented.getId()).orElseThrow().getAvailable());
+    }
+
+    @Test
+    void keepsItemsDisabledByOwner() {
+        User owner = userRepository.save(new User(null, "owner", "expiry-owner-disabled@mail.ru"));
+        User booker = userRepository.save(new User(null, "booker", "expiry-owner-disabled-booker@mail.ru"));
+        Item disabled = itemRepository.save(new Item(null, "Гитара", "Акустическая", false, owner));
+        Item disabledAfterBooking = itemRepository.save(
+                disabledByBooking(new Item(null, "Укулеле", "Сопрано", false, owner)));
+        Instant now = Instant.now();
+        save(booker, disabled, now.minus(Duration.ofHours(3)), BookingStatus.APPROVED);
+        save(booker, disabledAfterBooking, now.minus(Duration.ofHours(3)), BookingStatus.APPROVED);
+        itemService.updateItem(owner.getId(), disabledAfterBooking.getId(), new ItemDto(null, null, null, false, null));
+
+        scheduler.refill();
+        assertEquals(0, scheduler.releaseItems(List.of(disabled.getId(), disabledAfterBooking.getId()), now));
+
+        assertFalse(itemRepository.findById(disabled.getId()).orElseThrow().getAvailable());
+        assertFalse(itemRepository.findById(disabledAfterBooking.getId()).orElseThrow().getAvailable());
+    }
+
+    @Test
+    void refillLoadsOnlyDeadlinesWithinHorizon() {
+        User owner = userRepository.save(new User(null, "owner", "expiry-refill-owner@mail.ru"));
+        User booker = userRepository.save(new User(null, "booker", "expiry-refill-booker@mail.ru"));
+        Item item = itemRepository.save(new Item(null, "Палатка", "Туристическая палатка", true, owner));
+        Instant now = Instant.now();
+        Booking soon = save(booker, item, now.plus(Duration.ofMinutes(5)), BookingStatus.WAITING);
+        Booking later = save(booker, item, now.plus(Duration.ofHours(1)), BookingStatus.WAITING);
+        Booking ending = save(booker, item, now.minus(Duration.ofMinutes(115)), BookingStatus.APPROVED);
+
+        scheduler.refill();
+
+        assertTrue(scheduler.isRejectionPending(soon.getId(), item.getId()));
+        assertFalse(scheduler.isRejectionPending(later.getId(), item.getId()));
+        assertTrue(scheduler.isReleasePending(ending.getId(), item.getId()));
+    }
+
+    /**
+     * Бронирование длительностью два часа с началом в start.
+     */
+    private Booking save(User booker, Item item, Instant start, BookingStatus status) {
+        return bookingRepository.save(new Booking(null, booker, item, start, start.plus(Duration.ofHours(2)), status));
+    }
+
+    private static Item disabledByBooking(Item item) {
+        item.setDisabledByBooking(true);
+        return item;
+    }
+
+    private BookingStatus status(Booking booking) {
+        return bookingRepository.findById(booking.getId()).orElseThrow().getStatus();
+    }
+}
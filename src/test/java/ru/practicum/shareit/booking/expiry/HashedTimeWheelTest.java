@@ -0,0 +1,81 @@
+package ru.practicum.shareit.booking.expiry;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HashedTimeWheelTest {
+    private static final Instant START = Instant.ofEpochSecond(1_000_000);
+    private static final int SIZE = 8;
+
+    private final HashedTimeWheel<String> wheel = new HashedTimeWheel<>(Duration.ofSeconds(1), SIZE, START);
+
+    @Test
+    void deadlineInsideTickFiresOnlyOnceItHasPassed() {
+        wheel.schedule("task", at(2_500));
+
+        assertTrue(tasks(wheel.advance(at(2_999))).isEmpty());
+        assertEquals(List.of("task"), tasks(wheel.advance(at(3_000))));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void taskBeyondOneRevolutionWaitsForItsOwnTick() {
+        long deadline = (SIZE * 2 + 3) * 1_000L;
+        wheel.schedule("far", at(deadline));
+
+        for (long now = 1_000; now < deadline; now += 1_000) {
+            assertTrue(tasks(wheel.advance(at(now))).isEmpty(), "сработало раньше срока в " + now);
+        }
+        assertEquals(List.of("far"), tasks(wheel.advance(at(deadline))));
+    }
+
+    @Test
+    void jumpLongerThanRevolutionFiresEveryDueTaskOnce() {
+        wheel.schedule("first", at(1_000));
+        wheel.schedule("wrapped", at((SIZE + 1) * 1_000L));
+        wheel.schedule("later", at(100_000));
+
+        List<String> expired = tasks(wheel.advance(at(50_000)));
+
+        assertEquals(2, expired.size());
+        assertTrue(expired.containsAll(List.of("first", "wrapped")));
+        assertTrue(wheel.contains("later"));
+        assertEquals(List.of("later"), tasks(wheel.advance(at(100_000))));
+    }
+
+    @Test
+    void overdueTaskFiresOnNextTick() {
+        wheel.advance(at(5_000));
+        wheel.schedule("overdue", at(1_000));
+
+        assertTrue(tasks(wheel.advance(at(5_999))).isEmpty());
+        HashedTimeWheel.Timeout<String> timeout = wheel.advance(at(6_000)).get(0);
+        assertEquals("overdue", timeout.getTask());
+        assertEquals(at(1_000), timeout.getDeadline());
+    }
+
+    @Test
+    void sameTaskIsScheduledOnceUntilItFires() {
+        assertTrue(wheel.schedule("task", at(1_000)));
+        assertFalse(wheel.schedule("task", at(2_000)));
+        assertEquals(1, wheel.size());
+
+        assertEquals(List.of("task"), tasks(wheel.advance(at(1_000))));
+        assertTrue(wheel.schedule("task", at(2_000)));
+    }
+
+    private static Instant at(long millisAfterStart) {
+        return START.plusMillis(millisAfterStart);
+    }
+
+    private static List<String> tasks(List<HashedTimeWheel.Timeout<String>> timeouts) {
+        return timeouts.stream().map(HashedTimeWheel.Timeout::getTask).toList();
+    }
+}
@@ -0,0 +1,117 @@
+package ru.practicum.shareit.booking.stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.BookingChangedEvent;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Подписчик получает подтверждение своего бронирования, а подключение, буфер которого переполнился,
+ * снимается с подписки и закрывается.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class BookingStatusStreamTest {
+    private static final int BUFFER_SIZE = 32;
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void approvalIsStreamedToOwnerAndBooker() throws Exception {
+        UserDto owner = userService.createUser(new UserDto(null, "owner", "stream-owner@mail.ru"));
+        UserDto booker = userService.createUser(new UserDto(null, "booker", "stream-booker@mail.ru"));
+        ItemDto item = itemService.addItem(owner.getId(), new ItemDto(null, "Фонарь", "Налобный", true, null));
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Long bookingId = bookingService.createBooking(booker.getId(),
+                new BookingRequestDto(item.getId(), start, start.plusDays(1))).getId();
+
+        try (SseTestClient ownerStream = new SseTestClient(port, owner.getId());
+             SseTestClient bookerStream = new SseTestClient(port, booker.getId())) {
+            bookingService.approveBooking(owner.getId(), bookingId, true);
+
+            assertApproved(ownerStream.nextEvent(), bookingId);
+            assertApproved(bookerStream.nextEvent(), bookingId);
+        }
+    }
+
+    @Test
+    void overflowingBufferClosesConnection() throws Exception {
+        UserDto owner = userService.createUser(new UserDto(null, "owner", "stream-overflow@mail.ru"));
+        ExecutorService senders = Executors.newSingleThreadExecutor();
+        CountDownLatch blocked = new CountDownLatch(1);
+        senders.execute(() -> {
+            try {
+                blocked.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BookingStatusStream stream = new BookingStatusStream(userService, meterRegistry, Duration.ofMinutes(1),
+                Duration.ofSeconds(5), senders);
+
+        SseEmitter emitter = stream.subscribe(owner.getId());
+        for (long id = 1; id < BUFFER_SIZE; id++) {
+            stream.onBookingChanged(event(id, owner.getId()));
+        }
+        assertEquals(1, stream.connections(owner.getId()));
+        stream.onBookingChanged(event(BUFFER_SIZE, owner.getId()));
+
+        assertEquals(0, stream.connections(owner.getId()));
+        assertEquals(1, meterRegistry.get("shareit.booking.stream.overflows").counter().count());
+        blocked.countDown();
+        senders.shutdown();
+        assertTrue(senders.awaitTermination(10, TimeUnit.SECONDS));
+        assertThrows(IllegalStateException.class, () -> emitter.send("после закрытия"));
+    }
+
+    private void assertApproved(Map<String, String> event, Long bookingId) throws Exception {
+        assertEquals("booking", event.get("event"));
+        assertEquals(String.valueOf(bookingId), event.get("id"));
+        BookingDto booking = objectMapper.readValue(event.get("data"), BookingDto.class);
+        assertEquals(BookingStatus.APPROVED, booking.getStatus());
+    }
+
+    /**
+     * Изменение чужого бронирования на предмете владельца: событие уходит только владельцу.
+     */
+    private static BookingChangedEvent event(long bookingId, Long ownerId) {
+        BookingDto booking = new BookingDto();
+        booking.setId(bookingId);
+        booking.setStatus(BookingStatus.WAITING);
+        booking.setBooker(new UserDto(Long.MAX_VALUE, "booker", "stream-overflow-booker@mail.ru"));
+        return new BookingChangedEvent(booking, ownerId);
+    }
+}
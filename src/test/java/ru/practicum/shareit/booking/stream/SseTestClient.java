@@ -0,0 +1,71 @@
+package ru.practicum.shareit.booking.stream;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Подписка на GET /bookings/stream по настоящему HTTP-соединению. Строки читает отдельный поток,
+ * а тест забирает из них события с ограниченным ожиданием.
+ */
+public class SseTestClient implements AutoCloseable {
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+    private final Stream<String> body;
+
+    public SseTestClient(int port, Long userId) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/bookings/stream"))
+                .header("X-Sharer-User-Id", String.valueOf(userId))
+                .header("Accept", "text/event-stream")
+                .build();
+        HttpResponse<Stream<String>> response = client.send(request, HttpResponse.BodyHandlers.ofLines());
+        assertEquals(200, response.statusCode());
+        body = response.body();
+        Thread.ofVirtual().start(() -> {
+            try {
+                body.forEach(lines::add);
+            } catch (UncheckedIOException e) {
+                // соединение закрыто
+            }
+        });
+    }
+
+    /**
+     * Поля следующего события; комментарии (строки с ':') пропускаются.
+     */
+    public Map<String, String> nextEvent() throws InterruptedException {
+        Map<String, String> fields = new HashMap<>();
+        while (true) {
+            String line = lines.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            assertNotNull(line, "событие не пришло за " + TIMEOUT_SECONDS + " с");
+            if (line.isEmpty()) {
+                if (!fields.isEmpty()) {
+                    return fields;
+                }
+            } else if (!line.startsWith(":")) {
+                int colon = line.indexOf(':');
+                fields.put(line.substring(0, colon), line.substring(colon + 1));
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        body.close();
+        client.close();
+    }
+}
@@ -0,0 +1,130 @@
+package ru.practicum.shareit.invalidation;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.stream.SseTestClient;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Два экземпляра приложения над одной базой, связанные in-memory транспортом: изменения,
+ * сделанные через первый, должны быть видны во втором, несмотря на кэши второго, а подписчики второго
+ * должны получать изменения бронирований, сделанные через первый.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class InvalidationBusTest {
+    private ConfigurableApplicationContext writer;
+    private ConfigurableApplicationContext reader;
+
+    @BeforeAll
+    void startNodes() {
+        writer = startNode(WebApplicationType.NONE);
+        reader = startNode(WebApplicationType.SERVLET);
+    }
+
+    @AfterAll
+    void stopNodes() {
+        reader.close();
+        writer.close();
+    }
+
+    @Test
+    void peerCachesFollowChangesMadeOnAnotherNode() {
+        UserDto owner = writer.getBean(UserService.class)
+                .createUser(new UserDto(null, "owner", "invalidation-owner@mail.ru"));
+        ItemService writerItems = writer.getBean(ItemService.class);
+        ItemDto lamp = writerItems.addItem(owner.getId(), new ItemDto(null, "Lamp", "Desk lamp", true, null));
+
+        ItemService readerItems = reader.getBean(ItemService.class);
+        ItemRepository readerRepository = reader.getBean(ItemRepository.class);
+        assertEquals(List.of(lamp.getId()), ids(readerItems.searchItems("lamp", 0, 10)));
+        assertEquals("Lamp", readerRepository.findById(lamp.getId()).map(Item::getName).orElseThrow());
+
+        writerItems.updateItem(owner.getId(), lamp.getId(), new ItemDto(null, "Torch", null, null, null));
+
+        assertEquals("Torch", readerRepository.findById(lamp.getId()).map(Item::getName).orElseThrow());
+        assertEquals(List.of(lamp.getId()), ids(readerItems.searchItems("torch", 0, 10)));
+        assertEquals(List.of(lamp.getId()), ids(readerItems.searchItems("lamp", 0, 10)));
+
+        writerItems.updateItem(owner.getId(), lamp.getId(), new ItemDto(null, null, "Pocket torch", null, null));
+
+        assertTrue(readerItems.searchItems("lamp", 0, 10).isEmpty());
+
+        writer.getBean(UserService.class).deleteUser(owner.getId());
+
+        assertTrue(readerItems.searchItems("torch", 0, 10).isEmpty());
+        assertTrue(readerRepository.findById(lamp.getId()).isEmpty());
+    }
+
+    @Test
+    void importedChunkReachesPeerIndexInOneMessage() throws IOException {
+        UserDto owner = writer.getBean(UserService.class)
+                .createUser(new UserDto(null, "owner", "invalidation-import@mail.ru"));
+        String ndjson = "{\"name\":\"Kettle\",\"description\":\"Electric\",\"available\":true}\n" +
+                "{\"name\":\"Kettlebell\",\"description\":\"16 kg\",\"available\":true}\n";
+        List<Long> imported = new ArrayList<>();
+        writer.getBean(ItemService.class).importItems(owner.getId(),
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)),
+                result -> imported.add(result.getId()));
+
+        assertEquals(imported, ids(reader.getBean(ItemService.class).searchItems("kettle", 0, 10)));
+    }
+
+    @Test
+    void bookingChangeReachesPeerSubscribers() throws Exception {
+        UserService writerUsers = writer.getBean(UserService.class);
+        UserDto owner = writerUsers.createUser(new UserDto(null, "owner", "invalidation-stream-owner@mail.ru"));
+        UserDto booker = writerUsers.createUser(new UserDto(null, "booker", "invalidation-stream-booker@mail.ru"));
+        ItemDto tent = writer.getBean(ItemService.class)
+                .addItem(owner.getId(), new ItemDto(null, "Tent", "Two-person", true, null));
+        BookingService writerBookings = writer.getBean(BookingService.class);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Long bookingId = writerBookings.createBooking(booker.getId(),
+                new BookingRequestDto(tent.getId(), start, start.plusDays(1))).getId();
+
+        int readerPort = reader.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+        try (SseTestClient ownerStream = new SseTestClient(readerPort, owner.getId())) {
+            writerBookings.approveBooking(owner.getId(), bookingId, true);
+
+            Map<String, String> event = ownerStream.nextEvent();
+            assertEquals(String.valueOf(bookingId), event.get("id"));
+            assertTrue(event.get("data").contains("\"status\":\"APPROVED\""), event.get("data"));
+        }
+    }
+
+    private static ConfigurableApplicationContext startNode(WebApplicationType webApplicationType) {
+        return new SpringApplicationBuilder(ShareItApp.class)
+                .profiles("test")
+                .web(webApplicationType)
+                .run("--spring.datasource.url=jdbc:h2:mem:invalidation-bus;DB_CLOSE_DELAY=-1",
+                        "--shareit.invalidation.channel=invalidation-bus-test",
+                        "--server.port=0");
+    }
+
+    private static List<Long> ids(List<ItemDto> items) {
+        return items.stream().map(ItemDto::getId).toList();
+    }
+}
@@ -0,0 +1,97 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.item.dto.AvailabilityWindowDto;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Свободные промежутки предмета разрезаются подтвержденными и ожидающими бронированиями, а у недоступного
+ * предмета их нет вовсе.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ItemAvailabilityTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Test
+    void windowsSkipApprovedAndWaitingBookings() throws Exception {
+        User owner = userRepository.save(new User(null, "owner", "availability-owner@mail.ru"));
+        User booker = userRepository.save(new User(null, "booker", "availability-booker@mail.ru"));
+        Item item = itemRepository.save(new Item(null, "Палатка", "Трехместная", true, owner));
+        LocalDateTime day = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        save(booker, item, day.plusDays(1), day.plusDays(2), BookingStatus.APPROVED);
+        save(booker, item, day.plusDays(4), day.plusDays(5), BookingStatus.WAITING);
+        save(booker, item, day.plusDays(6), day.plusDays(7), BookingStatus.REJECTED);
+
+        assertEquals(List.of(
+                        new AvailabilityWindowDto(day, day.plusDays(1)),
+                        new AvailabilityWindowDto(day.plusDays(2), day.plusDays(4)),
+                        new AvailabilityWindowDto(day.plusDays(5), day.plusDays(9))),
+                windows(item.getId(), day, day.plusDays(9)));
+    }
+
+    @Test
+    void unavailableItemHasNoWindows() throws Exception {
+        User owner = userRepository.save(new User(null, "owner", "availability-disabled@mail.ru"));
+        Item item = itemRepository.save(new Item(null, "Лодка", "Надувная", false, owner));
+        LocalDateTime day = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+
+        assertEquals(List.of(), windows(item.getId(), day, day.plusDays(3)));
+    }
+
+    @Test
+    void rejectsEmptyRangeAndUnknownItem() throws Exception {
+        User owner = userRepository.save(new User(null, "owner", "availability-errors@mail.ru"));
+        Item item = itemRepository.save(new Item(null, "Котелок", "Походный", true, owner));
+        LocalDateTime day = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+
+        availability(item.getId(), day, day).andExpect(status().isBadRequest());
+        availability(Long.MAX_VALUE, day, day.plusDays(1)).andExpect(status().isNotFound());
+    }
+
+    private List<AvailabilityWindowDto> windows(Long itemId, LocalDateTime from, LocalDateTime to) throws Exception {
+        String body = availability(itemId, from, to)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return List.of(objectMapper.readValue(body, AvailabilityWindowDto[].class));
+    }
+
+    private ResultActions availability(Long itemId, LocalDateTime from, LocalDateTime to) throws Exception {
+        return mockMvc.perform(get("/items/{itemId}/availability", itemId)
+                .param("from", from.toString())
+                .param("to", to.toString()));
+    }
+
+    private void save(User booker, Item item, LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        bookingRepository.save(new Booking(null, booker, item, start.atZone(ZoneId.systemDefault()).toInstant(),
+                end.atZone(ZoneId.systemDefault()).toInstant(), status));
+    }
+}
@@ -0,0 +1,111 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import ru.practicum.shareit.item.dto.ItemImportResult;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Импорт сохраняет предметы частями по 500, публикуя на каждую часть одно событие, и сообщает
+ * результат каждой непустой строки с ее номером. Ошибки разбора приходят сразу, а созданные предметы -
+ * после сохранения своей части, поэтому результаты сравниваются упорядоченными по строкам.
+ */
+@SpringBootTest
+@RecordApplicationEvents
+class ItemImportTest {
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private ApplicationEvents events;
+
+    @Test
+    void savesInChunksAndReportsEveryLine() throws Exception {
+        Long ownerId = userService.createUser(new UserDto(null, "owner", "import-chunks@mail.ru")).getId();
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 1; i <= 1203; i++) {
+            ndjson.append(item("Импорт " + i)).append('\n');
+        }
+        ndjson.append("{bad json\n")
+                .append('\n')
+                .append("{\"name\":\"\",\"description\":\"без названия\",\"available\":true}\n")
+                .append(item("Последний"));
+
+        List<ItemImportResult> results = importItems(ownerId, ndjson.toString());
+
+        assertEquals(1206, results.size());
+        for (int i = 0; i < 1203; i++) {
+            assertEquals(i + 1, results.get(i).getLine());
+            assertNotNull(results.get(i).getId());
+            assertNull(results.get(i).getError());
+        }
+        assertEquals(1204, results.get(1203).getLine());
+        assertTrue(results.get(1203).getError().startsWith("Некорректный JSON"));
+        assertEquals(1206, results.get(1204).getLine());
+        assertTrue(results.get(1204).getError().startsWith("name: "));
+        assertEquals(1207, results.get(1205).getLine());
+        assertNotNull(results.get(1205).getId());
+        assertEquals(1204, itemRepository.findByOwnerId(ownerId).size());
+        assertEquals(List.of(500, 500, 204), events.stream(ItemsChangedEvent.class)
+                .map(event -> event.getItems().size())
+                .toList());
+        assertEquals(0, events.stream(ItemChangedEvent.class).count());
+    }
+
+    @Test
+    void failedChunkReportsAllOfItsLinesAndLaterChunksStillSave() throws Exception {
+        Long ownerId = userService.createUser(new UserDto(null, "owner", "import-failed-chunk@mail.ru")).getId();
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 1; i <= 501; i++) {
+            ndjson.append(item(i == 3 ? "x".repeat(300) : "Часть " + i)).append('\n');
+        }
+
+        List<ItemImportResult> results = importItems(ownerId, ndjson.toString());
+
+        assertEquals(501, results.size());
+        for (int i = 0; i < 500; i++) {
+            assertEquals(i + 1, results.get(i).getLine());
+            assertNull(results.get(i).getId());
+            assertTrue(results.get(i).getError().startsWith("Не удалось сохранить предмет"));
+        }
+        assertEquals(501, results.get(500).getLine());
+        assertNotNull(results.get(500).getId());
+        assertEquals(List.of(results.get(500).getId()), itemRepository.findByOwnerId(ownerId).stream()
+                .map(Item::getId)
+                .toList());
+        assertEquals(List.of(1), events.stream(ItemsChangedEvent.class)
+                .map(event -> event.getItems().size())
+                .toList());
+    }
+
+    private List<ItemImportResult> importItems(Long ownerId, String ndjson) throws Exception {
+        List<ItemImportResult> results = new ArrayList<>();
+        itemService.importItems(ownerId, new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)),
+                results::add);
+        results.sort(Comparator.comparing(ItemImportResult::getLine));
+        return results;
+    }
+
+    private static String item(String name) {
+        return "{\"name\":\"" + name + "\",\"description\":\"из файла\",\"available\":true}";
+    }
+}
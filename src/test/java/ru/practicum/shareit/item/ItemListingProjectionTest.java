@@ -0,0 +1,93 @@
+package ru.practicum.shareit.item;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.item.comment.Comment;
+import ru.practicum.shareit.item.comment.CommentDto;
+import ru.practicum.shareit.item.comment.CommentRepository;
+import ru.practicum.shareit.item.dto.ItemWithDatesDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Список предметов владельца собирается из проекций: даты ближайших одобренных бронирований и комментарии
+ * приходят готовыми кортежами, а сущности в контекст персистентности не загружаются.
+ */
+@SpringBootTest
+class ItemListingProjectionTest {
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void ownerListingCarriesDatesAndCommentsWithoutLoadingEntities() {
+        User owner = userRepository.save(new User(null, "owner", "projection-owner@mail.ru"));
+        User booker = userRepository.save(new User(null, "Арендатор", "projection-booker@mail.ru"));
+        Item booked = itemRepository.save(new Item(null, "Байдарка", "Двухместная", true, owner));
+        Item idle = itemRepository.save(new Item(null, "Весло", "Запасное", true, owner));
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        Instant lastEnd = now.minus(2, ChronoUnit.DAYS);
+        Instant nextStart = now.plus(3, ChronoUnit.DAYS);
+        save(booker, booked, now.minus(5, ChronoUnit.DAYS), now.minus(4, ChronoUnit.DAYS), BookingStatus.APPROVED);
+        save(booker, booked, now.minus(3, ChronoUnit.DAYS), lastEnd, BookingStatus.APPROVED);
+        save(booker, booked, now.plus(1, ChronoUnit.DAYS), now.plus(2, ChronoUnit.DAYS), BookingStatus.WAITING);
+        save(booker, booked, nextStart, now.plus(4, ChronoUnit.DAYS), BookingStatus.APPROVED);
+        Comment comment = commentRepository.save(new Comment(null, "Не протекает", booked, booker,
+                now.minus(1, ChronoUnit.DAYS)));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        List<ItemWithDatesDto> items = itemService.getItemsByOwner(owner.getId());
+
+        assertTrue(statistics.isStatisticsEnabled());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(2, items.size());
+        ItemWithDatesDto bookedDto = items.get(0);
+        assertEquals(booked.getId(), bookedDto.getId());
+        assertEquals("Байдарка", bookedDto.getName());
+        assertEquals(local(lastEnd), bookedDto.getLastBooking());
+        assertEquals(local(nextStart), bookedDto.getNextBooking());
+        assertEquals(List.of(new CommentDto(comment.getId(), "Не протекает", "Арендатор",
+                local(comment.getCreated()))), bookedDto.getComments());
+        ItemWithDatesDto idleDto = items.get(1);
+        assertEquals(idle.getId(), idleDto.getId());
+        assertNull(idleDto.getLastBooking());
+        assertNull(idleDto.getNextBooking());
+        assertEquals(List.of(), idleDto.getComments());
+    }
+
+    private void save(User booker, Item item, Instant start, Instant end, BookingStatus status) {
+        bookingRepository.save(new Booking(null, booker, item, start, end, status));
+    }
+
+    private static LocalDateTime local(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,56 @@
+package ru.practicum.shareit.item.search;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Изменение предмета сбрасывает только запросы, которые входят в его старый или новый текст,
+ * со всеми их страницами; остальные ответы остаются в кэше.
+ */
+class ItemSearchCacheTest {
+    private final ItemSearchCache cache = new ItemSearchCache(new SimpleMeterRegistry());
+
+    @Test
+    void invalidatesOnlyQueriesContainedInChangedTexts() {
+        for (String query : List.of("Drill", "dri", "ill", "cordless", "saw", "пила", "drills")) {
+            put(query, 0, 10);
+        }
+        put("drill", 10, 10);
+
+        cache.invalidateMatching(List.of("cordless drill", "battery included"));
+
+        for (String query : List.of("drill", "DRI", "ill", "Cordless")) {
+            assertNull(cache.get(query, 0, 10), query);
+        }
+        assertNull(cache.get("drill", 10, 10));
+        assertEquals(page("saw"), cache.get("saw", 0, 10));
+        assertEquals(page("пила"), cache.get("ПИЛА", 0, 10));
+        assertEquals(page("drills"), cache.get("drills", 0, 10));
+    }
+
+    @Test
+    void dropsPageComputedBeforeConcurrentInvalidation() {
+        long version = cache.version();
+        cache.invalidateMatching(List.of("unrelated"));
+        cache.put("drill", 0, 10, page("drill"), version);
+
+        assertNull(cache.get("drill", 0, 10));
+
+        cache.put("drill", 0, 10, page("drill"), cache.version());
+        assertEquals(page("drill"), cache.get("drill", 0, 10));
+    }
+
+    private void put(String query, int from, int size) {
+        cache.put(query, from, size, page(query), cache.version());
+    }
+
+    private static List<ItemDto> page(String query) {
+        return List.of(new ItemDto(1L, query, query, true, null));
+    }
+}
@@ -0,0 +1,153 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Триграммный индекс находит те же предметы, что и LIKE '%text%' без учета регистра, не хранит
+ * устаревших записей после изменения или удаления предмета и отдает страницы в порядке релевантности.
+ * База общая с другими тестами, поэтому сравниваются только предметы, созданные в самом тесте.
+ */
+@SpringBootTest
+class ItemSearchIndexTest {
+    @Autowired
+    private ItemSearchIndex itemSearchIndex;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private ItemSearchCache itemSearchCache;
+
+    @Test
+    void matchesLikeFallbackForShortMixedCaseAndCyrillicQueries() {
+        Long ownerId = createOwner("search-like@mail.ru");
+        Set<Long> own = Set.of(
+                addItem(ownerId, "Qx-Дрель ударная", "Мощная, 800 Вт"),
+                addItem(ownerId, "Набор ключей", "Qx-ключи рожковые, 12 шт"),
+                addItem(ownerId, "ЁЛОЧНАЯ гирлянда", "qx: светодиодная"),
+                addItem(ownerId, "Qx lamp", "Desk LAMP with clamp"));
+
+        for (String query : List.of("q", "Qx", "qX-", "дрель", "ДРЕЛЬ", "дРеЛь уд", "ёлочн", "Ключ", "lamp",
+                "CLAMP", "шт", "800 вт", "qx-к", "нет такого")) {
+            assertEquals(like(query, own), indexed(query, own), "запрос \"" + query + "\"");
+        }
+    }
+
+    @Test
+    void findsQueriesShorterThanGram() {
+        Long ownerId = createOwner("search-short@mail.ru");
+        Long item = addItem(ownerId, "Жq", "-");
+
+        assertTrue(indexed("ж", Set.of(item)).contains(item));
+        assertTrue(indexed("Жq", Set.of(item)).contains(item));
+        assertTrue(indexed("Q", Set.of(item)).contains(item));
+        assertFalse(indexed("qж", Set.of(item)).contains(item));
+    }
+
+    @Test
+    void updateAndDeleteRemoveStalePostings() {
+        Long ownerId = createOwner("search-stale@mail.ru");
+        Long item = addItem(ownerId, "Стремянка Zorblat", "Алюминиевая");
+        Set<Long> own = Set.of(item);
+        assertEquals(own, indexed("zorblat", own));
+
+        itemService.updateItem(ownerId, item, new ItemDto(null, "Стремянка Quenvik", null, null, null));
+        assertTrue(indexed("zorblat", own).isEmpty());
+        assertEquals(own, indexed("quenvik", own));
+        assertEquals(own, indexed("алюмин", own));
+
+        itemService.updateItem(ownerId, item, new ItemDto(null, null, "Стальная", null, null));
+        assertTrue(indexed("алюмин", own).isEmpty());
+        assertEquals(own, indexed("стальн", own));
+
+        itemService.updateItem(ownerId, item, new ItemDto(null, null, null, false, null));
+        assertTrue(indexed("quenvik", own).isEmpty());
+
+        itemService.updateItem(ownerId, item, new ItemDto(null, null, null, true, null));
+        assertEquals(own, indexed("quenvik", own));
+
+        userService.deleteUser(ownerId);
+        assertTrue(indexed("quenvik", own).isEmpty());
+        assertTrue(indexed("стальн", own).isEmpty());
+    }
+
+    @Test
+    void ranksByWeightedOccurrencesAndBreaksTiesById() {
+        Long ownerId = createOwner("search-rank@mail.ru");
+        Long descriptionTriple = addItem(ownerId, "Ящик", "vortex, vortex и еще vortex");
+        Long nameOnce = addItem(ownerId, "Vortex", "Ящик");
+        Long descriptionOnce = addItem(ownerId, "Ящик", "Почти vortex");
+        Long nameTwice = addItem(ownerId, "Vortex vortex", "Ящик");
+        Long nameAndDescription = addItem(ownerId, "VORTEX", "vortex vortex vortex vortex");
+
+        List<Long> ranking = List.of(nameAndDescription, nameTwice, descriptionTriple, nameOnce, descriptionOnce);
+        assertEquals(ranking, itemSearchIndex.search("vortex", 0, 10));
+        assertEquals(ranking.subList(0, 2), itemSearchIndex.search("vortex", 0, 2));
+        assertEquals(ranking.subList(2, 4), itemSearchIndex.search("vortex", 2, 2));
+        assertEquals(ranking.subList(4, 5), itemSearchIndex.search("vortex", 4, 2));
+        assertEquals(ranking.subList(1, 4), itemSearchIndex.search("vortex", 1, 3));
+        assertTrue(itemSearchIndex.search("vortex", 5, 2).isEmpty());
+        assertEquals(ranking.subList(2, 4), itemService.searchItems("Vortex", 2, 2).stream()
+                .map(ItemDto::getId)
+                .toList());
+    }
+
+    @Test
+    void importedChunkInvalidatesSearchCacheOnce() throws IOException {
+        Long ownerId = createOwner("search-import@mail.ru");
+        String ndjson = "{\"name\":\"Glimmer 1\",\"description\":\"-\",\"available\":true}\n" +
+                "{\"name\":\"Glimmer 2\",\"description\":\"-\",\"available\":true}\n" +
+                "{\"name\":\"Glimmer 3\",\"description\":\"-\",\"available\":true}\n";
+        long version = itemSearchCache.version();
+
+        itemService.importItems(ownerId, new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)),
+                result -> { });
+
+        assertEquals(version + 1, itemSearchCache.version());
+        assertEquals(3, itemSearchIndex.search("glimmer", 0, 10).size());
+    }
+
+    private Long createOwner(String email) {
+        return userService.createUser(new UserDto(null, "owner", email)).getId();
+    }
+
+    private Long addItem(Long ownerId, String name, String description) {
+        return itemService.addItem(ownerId, new ItemDto(null, name, description, true, null)).getId();
+    }
+
+    private Set<Long> indexed(String query, Set<Long> own) {
+        return itemSearchIndex.search(query, 0, Integer.MAX_VALUE).stream()
+                .filter(own::contains)
+                .collect(Collectors.toSet());
+    }
+
+    private Set<Long> like(String query, Set<Long> own) {
+        return itemRepository
+                .findByAvailableTrueAndNameContainingIgnoreCaseOrAvailableTrueAndDescriptionContainingIgnoreCase(query, query)
+                .stream()
+                .map(Item::getId)
+                .filter(own::contains)
+                .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,95 @@
+package ru.practicum.shareit.item.summary;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Сводка пересчитывается при подтверждении бронирования, а устаревшие сводки обход обновляет
+ * всеми пачками, пока они не закончатся.
+ */
+@SpringBootTest
+class ItemBookingSummaryTest {
+    private static final int STALE_ITEMS = 501;
+
+    @Autowired
+    private ItemBookingSummaryUpdater summaryUpdater;
+    @Autowired
+    private ItemBookingSummaryRepository summaryRepository;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Test
+    void approvalRefreshesSummary() {
+        User owner = userRepository.save(new User(null, "owner", "summary-owner@mail.ru"));
+        User booker = userRepository.save(new User(null, "booker", "summary-booker@mail.ru"));
+        Item item = itemRepository.save(new Item(null, "Шатер", "Для праздника", true, owner));
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        Long bookingId = bookingService.createBooking(booker.getId(),
+                new BookingRequestDto(item.getId(), start, start.plusDays(1))).getId();
+
+        bookingService.approveBooking(owner.getId(), bookingId, true);
+
+        ItemBookingSummary summary = summaryRepository.findById(item.getId()).orElseThrow();
+        Instant startInstant = start.atZone(ZoneId.systemDefault()).toInstant();
+        assertNull(summary.getLastBookingEnd());
+        assertEquals(startInstant, summary.getNextBookingStart());
+        assertEquals(startInstant, summary.getRefreshAt());
+    }
+
+    @Test
+    void sweepRefreshesEveryStaleBatch() {
+        User owner = userRepository.save(new User(null, "owner", "summary-sweep-owner@mail.ru"));
+        User booker = userRepository.save(new User(null, "booker", "summary-sweep-booker@mail.ru"));
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        Instant start = now.minus(2, ChronoUnit.DAYS);
+        Instant end = now.minus(1, ChronoUnit.DAYS);
+        List<Item> items = new ArrayList<>(STALE_ITEMS);
+        for (int i = 0; i < STALE_ITEMS; i++) {
+            items.add(new Item(null, "Стул " + i, "Складной", true, owner));
+        }
+        items = itemRepository.saveAll(items);
+        List<Booking> bookings = new ArrayList<>(STALE_ITEMS);
+        List<ItemBookingSummary> summaries = new ArrayList<>(STALE_ITEMS);
+        for (Item item : items) {
+            bookings.add(new Booking(null, booker, item, start, end, BookingStatus.APPROVED));
+            summaries.add(new ItemBookingSummary(item.getId(), null, start, start, null));
+        }
+        bookingRepository.saveAll(bookings);
+        summaryRepository.saveAll(summaries);
+
+        summaryUpdater.sweep();
+
+        for (Item item : items) {
+            ItemBookingSummary summary = summaryRepository.findById(item.getId()).orElseThrow();
+            assertEquals(end, summary.getLastBookingEnd(), "предмет " + item.getId());
+            assertNull(summary.getNextBookingStart());
+            assertNull(summary.getRefreshAt());
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package ru.practicum.shareit.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Изменения бронирования доходят до журнала через outbox в порядке записи, а потребитель получает их
+ * повторно, пока не подтвердит позицию.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ChangeStreamTest {
+    private static final String CONSUMER = "change-stream-test";
+    private static final String CONSUMER_KEY = "test-consumer-key";
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private ChangeStreamService changeStreamService;
+    @Autowired
+    private OutboxRelay outboxRelay;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void bookingChangesAreStreamedUntilConsumerCommits() throws Exception {
+        UserDto owner = userService.createUser(new UserDto(null, "owner", "outbox-owner@mail.ru"));
+        UserDto booker = userService.createUser(new UserDto(null, "booker", "outbox-booker@mail.ru"));
+        ItemDto item = itemService.addItem(owner.getId(), new ItemDto(null, "Дрель", "Ударная дрель", true, null));
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        BookingDto booking = bookingService.createBooking(booker.getId(),
+                new BookingRequestDto(item.getId(), start, start.plusDays(1)));
+        bookingService.approveBooking(owner.getId(), booking.getId(), true);
+
+        outboxRelay.relay();
+
+        List<ChangeRecord> records = ofBooking(changeStreamService.read(CONSUMER, 1000), booking.getId());
+        assertEquals(List.of("WAITING", "APPROVED"), records.stream()
+                .map(record -> bookingStatus(record.getMessage()))
+                .toList());
+        assertTrue(records.get(0).getOffset() < records.get(1).getOffset());
+        assertEquals(records, ofBooking(changeStreamService.read(CONSUMER, 1000), booking.getId()));
+
+        long last = records.get(1).getOffset();
+        assertEquals(last, changeStreamService.commit(CONSUMER, last));
+        assertEquals(last, changeStreamService.commit(CONSUMER, records.get(0).getOffset()));
+        assertTrue(changeStreamService.read(CONSUMER, 1000).stream()
+                .allMatch(record -> record.getOffset() > last));
+    }
+
+    @Test
+    void endpointsRequireConsumerKey() throws Exception {
+        mockMvc.perform(get("/changes").param("consumer", CONSUMER))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/changes").param("consumer", CONSUMER).header("X-Consumer-Key", "wrong"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(put("/changes/offsets/" + CONSUMER).param("offset", "0"))
+                .andExpect(status().isForbidden());
+
+        mockMvc.perform(get("/changes").param("consumer", CONSUMER).header("X-Consumer-Key", CONSUMER_KEY))
+                .andExpect(status().isOk());
+        mockMvc.perform(put("/changes/offsets/" + CONSUMER).param("offset", "0")
+                        .header("X-Consumer-Key", CONSUMER_KEY))
+                .andExpect(status().isOk());
+    }
+
+    private static List<ChangeRecord> ofBooking(List<ChangeRecord> records, Long bookingId) {
+        return records.stream()
+                .filter(record -> record.getMessage().getType() == OutboxEvent.Type.BOOKING_CHANGED)
+                .filter(record -> bookingId.equals(record.getMessage().getAggregateId()))
+                .toList();
+    }
+
+    private String bookingStatus(OutboxMessage message) {
+        try {
+            return objectMapper.readTree(message.getPayload()).path("booking").path("status").asText();
+        } catch (Exception e) {
+            throw new AssertionError(message.getPayload(), e);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package ru.practicum.shareit.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Чтение с произвольной позиции через индекс смещений, в том числе после переоткрытия файла
+ * с недописанной последней строкой.
+ */
+class FileOutboxSinkTest {
+    private static final int RECORDS = FileOutboxSink.INDEX_INTERVAL * 2 + 100;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @TempDir
+    private Path dir;
+
+    @Test
+    void readsFromAnyOffsetBeforeAndAfterReopen() throws IOException {
+        Path file = dir.resolve("log/changes.ndjson");
+        FileOutboxSink sink = new FileOutboxSink(file, objectMapper);
+        for (int from = 1; from <= RECORDS; from += 300) {
+            sink.append(messages(from, Math.min(from + 299, RECORDS)));
+        }
+        assertEquals(RECORDS, sink.lastOffset());
+        assertReads(sink);
+
+        Files.writeString(file, "{\"offset\":", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        FileOutboxSink reopened = new FileOutboxSink(file, objectMapper);
+        assertEquals(RECORDS, reopened.lastOffset());
+        assertReads(reopened);
+
+        reopened.append(messages(RECORDS + 1, RECORDS + 1));
+        assertEquals(List.of((long) RECORDS + 1), ids(reopened.read(RECORDS, 10)));
+    }
+
+    private static void assertReads(FileOutboxSink sink) {
+        int interval = FileOutboxSink.INDEX_INTERVAL;
+        for (long offset : List.of(0L, 1L, interval - 1L, (long) interval, interval + 1L, RECORDS - 1L)) {
+            List<ChangeRecord> records = sink.read(offset, 3);
+            long expected = Math.min(3, RECORDS - offset);
+            assertEquals(expected, records.size(), "позиция " + offset);
+            for (int i = 0; i < records.size(); i++) {
+                assertEquals(offset + i + 1, records.get(i).getOffset());
+                assertEquals(offset + i + 1, records.get(i).getMessage().getId());
+            }
+        }
+        assertTrue(sink.read(RECORDS, 10).isEmpty());
+    }
+
+    private static List<OutboxMessage> messages(long fromId, long toId) {
+        List<OutboxMessage> messages = new ArrayList<>();
+        for (long id = fromId; id <= toId; id++) {
+            messages.add(new OutboxMessage(id, OutboxEvent.Type.BOOKING_CHANGED, id, "{\"n\":" + id + "}",
+                    Instant.EPOCH));
+        }
+        return messages;
+    }
+
+    private static List<Long> ids(List<ChangeRecord> records) {
+        return records.stream().map(record -> record.getMessage().getId()).toList();
+    }
+}
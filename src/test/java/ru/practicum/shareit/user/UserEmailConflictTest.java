@@ -0,0 +1,62 @@
+package ru.practicum.shareit.user;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Email уникален без учета регистра: совпадение с чужим адресом - 409, смена регистра своего адреса разрешена.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class UserEmailConflictTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void emailDifferingOnlyInCaseIsConflict() throws Exception {
+        Long first = createdId("Conflict.First@Mail.ru");
+        Long second = createdId("conflict-second@mail.ru");
+
+        createUser("CONFLICT.FIRST@MAIL.RU")
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.description").value("Пользователь с email CONFLICT.FIRST@MAIL.RU уже существует"));
+        updateEmail(second, "conflict.first@mail.ru").andExpect(status().isConflict());
+        assertEquals("conflict-second@mail.ru", userRepository.findById(second).orElseThrow().getEmail());
+
+        updateEmail(first, "conflict.first@mail.ru").andExpect(status().isOk());
+        assertEquals("conflict.first@mail.ru", userRepository.findById(first).orElseThrow().getEmail());
+    }
+
+    private ResultActions createUser(String email) throws Exception {
+        return mockMvc.perform(post("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new UserDto(null, "user", email))));
+    }
+
+    private ResultActions updateEmail(Long userId, String email) throws Exception {
+        return mockMvc.perform(patch("/users/{userId}", userId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new UserDto(null, null, email))));
+    }
+
+    private Long createdId(String email) throws Exception {
+        String body = createUser(email).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("id").asLong();
+    }
+}